@@ -1,6 +1,7 @@
 package com.beta.apiservice.config;
 
 import com.beta.apiservice.model.Project;
+import com.beta.apiservice.service.ProjectRateLimiter;
 import com.beta.apiservice.service.ProjectService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -18,7 +20,11 @@ import java.io.IOException;
 @Slf4j
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
     
+    // HttpServletResponse has no constant for 429
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    
     private final ProjectService projectService;
+    private final ProjectRateLimiter rateLimiter;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -26,7 +32,7 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         
         // Skip authentication for certain endpoints
         String requestURI = request.getRequestURI();
-        if (shouldSkipAuthentication(requestURI)) {
+        if (shouldSkipAuthentication(request.getMethod(), requestURI)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -53,6 +59,14 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         
+        long retryAfterSeconds = rateLimiter.tryAcquire(project);
+        if (retryAfterSeconds > 0) {
+            response.setStatus(SC_TOO_MANY_REQUESTS);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.getWriter().write("{\"error\": \"Rate limit exceeded\"}");
+            return;
+        }
+        
         // Add project info to request attributes
         request.setAttribute("project", project);
         request.setAttribute("projectId", project.getId());
@@ -60,11 +74,12 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
-    private boolean shouldSkipAuthentication(String requestURI) {
+    private boolean shouldSkipAuthentication(String method, String requestURI) {
         return requestURI.startsWith("/api/notification/health") ||
                requestURI.startsWith("/api/notification/version") ||
                requestURI.startsWith("/api/projects/register") ||
-               requestURI.startsWith("/api/messages/") && 
+               // Only inbox reads; writes to an inbox act on the project and need its API key
+               "GET".equals(method) && requestURI.startsWith("/api/messages/") &&
                (requestURI.contains("/user/") || requestURI.matches("/api/messages/[^/]+$")) ||
                requestURI.startsWith("/swagger-ui") ||
                requestURI.startsWith("/v3/api-docs");
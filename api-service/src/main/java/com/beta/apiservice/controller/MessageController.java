@@ -1,5 +1,6 @@
 package com.beta.apiservice.controller;
 
+import com.beta.apiservice.dto.InboxPage;
 import com.beta.apiservice.service.MessageStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +18,8 @@ import java.util.Map;
 @Slf4j
 public class MessageController {
     
+    private static final int MAX_BULK_DELETE = 1000;
+    
     private final MessageStorageService messageStorageService;
     
     /**
@@ -65,22 +68,28 @@ public class MessageController {
     public ResponseEntity<?> getUserMessages(
             @PathVariable String recipient,
             @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
             @RequestAttribute("projectId") String projectId) {
         
         try {
-            List<Map<String, Object>> messages = messageStorageService.getUserMessages(projectId, recipient, limit);
-            long unreadCount = messageStorageService.getUnreadMessageCount(projectId, recipient);
+            InboxPage inbox = messageStorageService.getInbox(projectId, recipient, limit, before, after);
             
             Map<String, Object> response = new HashMap<>();
             response.put("projectId", projectId);
             response.put("recipient", recipient);
-            response.put("messages", messages);
-            response.put("totalMessages", messages.size());
-            response.put("unreadCount", unreadCount);
+            response.put("messages", inbox.messages());
+            response.put("totalMessages", inbox.messages().size());
+            response.put("unreadCount", inbox.unreadCount());
             response.put("limit", limit);
+            response.put("nextCursor", inbox.nextCursor());
+            response.put("syncCursor", inbox.syncCursor());
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Failed to retrieve messages for recipient: {} in project: {}", recipient, projectId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -134,6 +143,32 @@ public class MessageController {
         }
     }
     
+    /**
+     * Mark every message in a recipient's inbox as read
+     */
+    @PutMapping("/user/{recipient}/read-all")
+    public ResponseEntity<?> markAllAsRead(
+            @PathVariable String recipient,
+            @RequestAttribute("projectId") String projectId) {
+        
+        try {
+            long readUntil = messageStorageService.markAllAsRead(projectId, recipient);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("recipient", recipient);
+            response.put("readUntil", readUntil);
+            response.put("unreadCount", 0);
+            response.put("status", "READ");
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Failed to mark all messages as read for recipient: {} in project: {}", recipient, projectId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to mark messages as read: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get unread message count for a user
      */
@@ -188,6 +223,44 @@ public class MessageController {
         }
     }
     
+    /**
+     * Delete many messages from a recipient's inbox in one call
+     */
+    @PostMapping("/user/{recipient}/delete")
+    public ResponseEntity<?> deleteMessages(
+            @PathVariable String recipient,
+            @RequestBody Map<String, Object> request,
+            @RequestAttribute("projectId") String projectId) {
+        
+        try {
+            if (!(request.get("messageIds") instanceof List<?> ids) || ids.isEmpty()
+                    || !ids.stream().allMatch(String.class::isInstance)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "messageIds must be a non-empty list of message IDs"));
+            }
+            if (ids.size() > MAX_BULK_DELETE) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "At most " + MAX_BULK_DELETE + " messages can be deleted per request"));
+            }
+            
+            List<String> messageIds = ids.stream().map(String.class::cast).distinct().toList();
+            int deleted = messageStorageService.deleteMessages(projectId, recipient, messageIds);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("recipient", recipient);
+            response.put("requested", messageIds.size());
+            response.put("deleted", deleted);
+            response.put("status", "DELETED");
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Failed to delete messages for recipient: {} in project: {}", recipient, projectId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to delete messages: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get project message statistics
      */
@@ -0,0 +1,33 @@
+package com.beta.apiservice.controller;
+
+import com.beta.apiservice.service.NotificationFanoutQueue;
+import com.beta.apiservice.service.ProjectCache;
+import com.beta.apiservice.service.ProjectRateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final NotificationFanoutQueue fanoutQueue;
+    private final ProjectCache projectCache;
+    private final ProjectRateLimiter rateLimiter;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("fanoutQueue", fanoutQueue.getStats());
+        response.put("projectCache", projectCache.getStats());
+        response.put("rateLimiter", rateLimiter.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
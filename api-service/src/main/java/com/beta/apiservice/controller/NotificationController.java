@@ -1,14 +1,21 @@
 package com.beta.apiservice.controller;
 
+import com.beta.apiservice.dto.BulkSendResult;
 import com.beta.apiservice.dto.NotificationRequest;
 import com.beta.apiservice.service.NotificationService;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +26,7 @@ import java.util.Map;
 @Slf4j
 public class NotificationController {
     private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/send")
     public ResponseEntity<?> sendNotification(
@@ -74,30 +82,70 @@ public class NotificationController {
     public ResponseEntity<Map<String, Object>> bulkSendNotification(
             @RequestBody List<NotificationRequest> requests,
             @RequestAttribute("projectId") String projectId) {
-        int success = 0;
-        int failed = 0;
-
-        for (NotificationRequest req : requests) {
-            try {
-                notificationService.sendNotification(req, projectId);
-                success++;
-            } catch (JsonProcessingException e) {
-                log.warn("Skipping invalid payload for project: {}", projectId);
-                failed++;
-            }
-        }
+        BulkSendResult result = notificationService.sendBulkNotifications(requests, projectId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Bulk notification request processed");
         response.put("projectId", projectId);
-        response.put("total", requests.size());
-        response.put("sent", success);
-        response.put("failed", failed);
+        response.put("total", result.total());
+        response.put("sent", result.sent());
+        response.put("failed", result.failed());
+        response.put("results", result.results());
+        response.put("failures", result.failures());
 
         return ResponseEntity.accepted().body(response);
     }
 
 
+    @PostMapping(value = "/bulk/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamBulkNotifications(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @RequestAttribute("projectId") String projectId) throws IOException {
+        response.setStatus(HttpStatus.ACCEPTED.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        PrintWriter writer = response.getWriter();
+        long[] totals = new long[3]; // processed, sent, failed
+
+        try {
+            notificationService.sendBulkNotifications(request.getInputStream(), projectId, results -> {
+                BulkSendResult batch = new BulkSendResult(results);
+                totals[0] += batch.total();
+                totals[1] += batch.sent();
+                totals[2] += batch.failed();
+
+                Map<String, Object> progress = new HashMap<>();
+                progress.put("processed", totals[0]);
+                progress.put("sent", totals[1]);
+                progress.put("failed", totals[2]);
+                progress.put("failures", batch.failures());
+                writeLine(writer, progress);
+            });
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed NDJSON record after {} records for project: {}", totals[0], projectId);
+            writeLine(writer, Map.of("error", "Malformed record at index " + totals[0] + ": " + e.getOriginalMessage()));
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("message", "Bulk notification stream processed");
+        summary.put("projectId", projectId);
+        summary.put("total", totals[0]);
+        summary.put("sent", totals[1]);
+        summary.put("failed", totals[2]);
+        writeLine(writer, summary);
+    }
+
+    private void writeLine(PrintWriter writer, Map<String, Object> line) {
+        try {
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.write('\n');
+            writer.flush();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize bulk progress", e);
+        }
+    }
+
+
     @GetMapping("/version")
     public ResponseEntity<Map<String, String>> getVersion() {
         return ResponseEntity.ok(Map.of(
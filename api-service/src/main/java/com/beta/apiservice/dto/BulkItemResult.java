@@ -0,0 +1,20 @@
+package com.beta.apiservice.dto;
+
+public record BulkItemResult(
+    int index,                           // Position of the item in the bulk request
+    String notificationId,               // Set when the item was queued
+    String status,                       // QUEUED or FAILED
+    String error                         // Failure reason, null when queued
+){
+    public static BulkItemResult queued(int index, String notificationId) {
+        return new BulkItemResult(index, notificationId, "QUEUED", null);
+    }
+
+    public static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, null, "FAILED", error);
+    }
+
+    public boolean isQueued() {
+        return "QUEUED".equals(status);
+    }
+}
@@ -0,0 +1,23 @@
+package com.beta.apiservice.dto;
+
+import java.util.List;
+
+public record BulkSendResult(
+    List<BulkItemResult> results         // One entry per request item, in request order
+){
+    public int total() {
+        return results.size();
+    }
+
+    public long sent() {
+        return results.stream().filter(BulkItemResult::isQueued).count();
+    }
+
+    public long failed() {
+        return total() - sent();
+    }
+
+    public List<BulkItemResult> failures() {
+        return results.stream().filter(result -> !result.isQueued()).toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.beta.apiservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record InboxPage(
+    List<Map<String, Object>> messages,  // Newest first, or oldest first when paging with "after"
+    long unreadCount,                    // Across the whole inbox, not just this page
+    String nextCursor,                   // Pass back with the same direction for the next page; null when there is none
+    String syncCursor                    // Newest message seen so far; pass as "after" to fetch only newer messages
+){}
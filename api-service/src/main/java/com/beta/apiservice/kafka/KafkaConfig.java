@@ -5,14 +5,22 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    /**
+     * Records are keyed by project (or recipient), so the partition count bounds how many
+     * consumers can deliver in parallel while ordering is kept per key. An existing topic is
+     * grown to this count on startup; Kafka never shrinks it.
+     */
     @Bean
-    public NewTopic topic(@Value("${app.kafka.topic:notifyx_test}") String topic) {
-        return new NewTopic(topic, 1, (short) 1);
+    public NewTopic topic(@Value("${app.kafka.topic:notifyx_test}") String topic,
+                          @Value("${app.kafka.partitions:12}") int partitions,
+                          @Value("${app.kafka.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicationFactor).build();
     }
 }
 
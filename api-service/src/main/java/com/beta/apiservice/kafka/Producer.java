@@ -22,7 +22,7 @@ public class Producer {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    public void sendMessage(String key, String value) {
+    public CompletableFuture<SendResult<String, String>> sendMessage(String key, String value) {
         CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(topic, key, value);
         future.whenComplete((result, ex) -> {
             if (ex == null) {
@@ -31,6 +31,7 @@ public class Producer {
                 logger.error("Failed to produce event to topic {}: key = {} value = {}", topic, key, value, ex);
             }
         });
+        return future;
     }
 }
 
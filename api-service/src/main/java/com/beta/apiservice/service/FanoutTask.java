@@ -0,0 +1,20 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.dto.NotificationRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis work for one accepted notification, queued for the write-behind fan-out.
+ */
+public record FanoutTask(
+    String notificationId,
+    String projectId,
+    NotificationRequest request,
+    Map<String, Object> notificationData
+) {
+    public List<String> recipients() {
+        return request.recipients() != null ? request.recipients() : List.of();
+    }
+}
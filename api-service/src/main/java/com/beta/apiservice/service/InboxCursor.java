@@ -0,0 +1,26 @@
+package com.beta.apiservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a time-ordered inbox: the message's creation time plus its ID to break ties between
+ * messages created in the same millisecond. Clients only ever see the encoded, opaque form.
+ */
+record InboxCursor(long createdAtMillis, String messageId) {
+
+    String encode() {
+        String raw = createdAtMillis + ":" + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static InboxCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new InboxCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.beta.apiservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts stored messages between the map shape the API returns and their Redis representations.
+ * <p>
+ * The compact form is Redis hashes with short field names and plain string values: timestamps are
+ * epoch millis, defaults (unread, STORED, no metadata) are left out and the ID lives only in the key.
+ * The content shared by every recipient of a notification is one hash, and each recipient's entry
+ * holds only a reference to it plus its own read state; {@link #decode} takes the two merged.
+ * Entries that carry the content inline are decoded the same way. The legacy form is the
+ * {@link GenericJackson2JsonRedisSerializer} JSON written before, which repeats full field names
+ * and {@code @class} metadata in every value; it can still be decoded.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageCodec {
+
+    static final String PROJECT_ID = "p";
+    static final String RECIPIENT = "r";
+    static final String MESSAGE = "m";
+    static final String TITLE = "t";
+    static final String CHANNEL = "c";
+    static final String METADATA = "md";
+    static final String CREATED_AT = "ca";
+    static final String STATUS = "s";
+    static final String READ_AT = "ra";
+    static final String CONTENT_REF = "cr";
+
+    private static final String DEFAULT_STATUS = "STORED";
+
+    private final ObjectMapper objectMapper;
+    private final GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    /**
+     * Hash fields for content shared by all recipients of a notification.
+     */
+    public Map<String, String> encodeContent(String projectId, String message, String title, String channel,
+                                             Map<String, Object> metadata, long createdAtMillis) {
+        Map<String, String> fields = new HashMap<>();
+        putIfPresent(fields, PROJECT_ID, projectId);
+        putIfPresent(fields, MESSAGE, message);
+        putIfPresent(fields, TITLE, title);
+        putIfPresent(fields, CHANNEL, channel);
+        if (metadata != null && !metadata.isEmpty()) {
+            try {
+                fields.put(METADATA, objectMapper.writeValueAsString(metadata));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Metadata is not serializable", e);
+            }
+        }
+        fields.put(CREATED_AT, Long.toString(createdAtMillis));
+        return fields;
+    }
+
+    /**
+     * Hash fields for one recipient's unread entry pointing at shared content.
+     */
+    public Map<String, String> encodeRecipient(String contentId, String recipient) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(CONTENT_REF, contentId);
+        putIfPresent(fields, RECIPIENT, recipient);
+        return fields;
+    }
+
+    /**
+     * The shared content an entry refers to, or null if it carries its content inline.
+     */
+    public String contentRef(Map<String, String> fields) {
+        return fields != null ? fields.get(CONTENT_REF) : null;
+    }
+
+    /**
+     * Expand a recipient entry with the shared content it refers to. Returns null when the content
+     * is gone, so the entry is treated like an expired message.
+     */
+    public Map<String, Object> decode(String messageId, Map<String, String> entry, Map<String, String> content) {
+        if (entry == null || entry.isEmpty() || content == null || content.isEmpty()) {
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>(content);
+        fields.putAll(entry);
+        return decode(messageId, fields);
+    }
+
+    /**
+     * Expand a compact hash back into the API's message shape. Returns null for an empty hash,
+     * which is what Redis returns for a missing key.
+     */
+    public Map<String, Object> decode(String messageId, Map<String, String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", messageId);
+        message.put("projectId", fields.get(PROJECT_ID));
+        message.put("recipient", fields.get(RECIPIENT));
+        message.put("message", fields.get(MESSAGE));
+        message.put("title", fields.get(TITLE));
+        message.put("channel", fields.get(CHANNEL));
+        message.put("metadata", decodeMetadata(fields.get(METADATA)));
+        message.put("createdAt", formatMillis(fields.get(CREATED_AT)));
+        message.put("status", fields.getOrDefault(STATUS, DEFAULT_STATUS));
+        message.put("read", fields.containsKey(READ_AT));
+        if (fields.containsKey(READ_AT)) {
+            message.put("readAt", formatMillis(fields.get(READ_AT)));
+        }
+        return message;
+    }
+
+    /**
+     * Decode a value written in the legacy JSON form, or null if it is not a message.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decodeLegacy(String json) {
+        if (json == null) {
+            return null;
+        }
+        Object value = legacySerializer.deserialize(json.getBytes(StandardCharsets.UTF_8));
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    private Map<String, Object> decodeMetadata(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            return new HashMap<>();
+        }
+    }
+
+    private static String formatMillis(String millis) {
+        if (millis == null) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private static void putIfPresent(Map<String, String> fields, String field, String value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.beta.apiservice.service;
 
+import com.beta.apiservice.dto.InboxPage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
@@ -19,7 +32,9 @@ import java.util.concurrent.TimeUnit;
 public class MessageStorageService {
     
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final MessageCodec messageCodec;
     
     @Value("${notification.storage.ttl-days:30}")
     private int notificationTtlDays;
@@ -27,57 +42,271 @@ public class MessageStorageService {
     @Value("${notification.storage.max-per-user:100}")
     private int maxNotificationsPerUser;
     
+    @Value("${notification.storage.pipeline-batch-size:500}")
+    private int pipelineBatchSize;
+    
+    @Value("${notification.storage.unread-reconcile-batch-size:100}")
+    private int unreadReconcileBatchSize;
+    
+    @Value("${notification.storage.project-index-max-per-day:10000}")
+    private int projectIndexMaxPerDay;
+    
+    @Value("${notification.storage.daily-stats-days:30}")
+    private int dailyStatsDays;
+    
+    // "hash" writes the compact form from MessageCodec, "json" the previous serialized map
+    @Value("${notification.storage.encoding:hash}")
+    private String encoding;
+    
+    // Compact messages, a Redis hash per recipient entry
+    private static final String COMPACT_MESSAGE_KEY_PREFIX = "msg:";
+    // Content shared by all recipients of one stored notification, referenced from their entries
+    private static final String CONTENT_KEY_PREFIX = "notification:content:";
+    // Messages stored as GenericJackson2JsonRedisSerializer JSON; read until they expire
     private static final String MESSAGE_KEY_PREFIX = "message:";
+    // Inbox index: sorted set of message IDs scored by creation time in epoch millis
+    private static final String USER_INBOX_KEY_PREFIX = "user:inbox:";
+    // Inbox lists written before the sorted-set index; migrated on first read
     private static final String USER_MESSAGES_KEY_PREFIX = "user:messages:";
-    private static final String PROJECT_MESSAGES_KEY_PREFIX = "project:messages:";
+    // Project index: one sorted set of message IDs per UTC day, capped and expiring with its messages
+    private static final String PROJECT_INDEX_KEY_PREFIX = "project:index:";
+    // Project counters: lifetime totals, and a hash per UTC day with the same fields
+    private static final String PROJECT_STATS_KEY_PREFIX = "project:stats:";
+    private static final String STATS_TOTAL_FIELD = "total";
+    private static final String STATS_CHANNEL_FIELD_PREFIX = "channel:";
+    private static final String UNREAD_COUNT_KEY_PREFIX = "user:unread:";
+    // Per-recipient read watermark in epoch millis: messages created at or before it count as read
+    private static final String READ_WATERMARK_KEY_PREFIX = "user:read-until:";
+    // Inboxes whose unread counter must be recomputed, scored by when: the next message expiry, or now after a trim
+    private static final String UNREAD_RECONCILE_KEY = "unread:reconcile";
+    
+    // Flags a compact entry as read unless it already is, by its own field or the recipient's watermark,
+    // and decrements the unread counter only when it did. Returns -1 if the entry is gone, 0 if it was
+    // already read, 1 if it was flagged and 2 if flagging it dropped the counter below zero.
+    private static final RedisScript<Long> MARK_READ_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end
+            local watermark = redis.call('GET', KEYS[3])
+            if watermark and tonumber(watermark) >= tonumber(ARGV[3]) then return 0 end
+            if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 0 then return 0 end
+            if redis.call('DECR', KEYS[2]) < 0 then return 2 end
+            return 1
+            """, Long.class);
+    private static final long MARK_READ_COUNTER_NEGATIVE = 2;
+    
+    // Trims each inbox of a batch, given as inbox, counter and watermark keys, to its newest ARGV[1] entries,
+    // and takes the unread ones among those removed off the counter. An entry is unread if it was created after
+    // the watermark and its compact hash has no read field; an expired entry is left to the recount already
+    // queued for its expiry. Returns the 1-based positions of the inboxes to recount: those with a legacy JSON
+    // entry removed, a counter driven below zero, or a watermark past ARGV[2], the batch's creation time, which
+    // means a mark-all-read reset the counter before the batch incremented it.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TRIM_INBOXES_SCRIPT = new DefaultRedisScript<>("""
+            local recount = {}
+            local keep = tonumber(ARGV[1])
+            for i = 1, #KEYS, 3 do
+                local watermark = tonumber(redis.call('GET', KEYS[i + 2]) or '0') or 0
+                local uncertain = watermark >= tonumber(ARGV[2])
+                local removed = redis.call('ZRANGE', KEYS[i], 0, -keep - 1, 'WITHSCORES')
+                if #removed > 0 then
+                    local unread = 0
+                    for j = 1, #removed, 2 do
+                        if tonumber(removed[j + 1]) > watermark then
+                            local id = string.gsub(removed[j], '"', '')
+                            if redis.call('EXISTS', ARGV[3] .. id) == 1 then
+                                if redis.call('HEXISTS', ARGV[3] .. id, ARGV[4]) == 0 then unread = unread + 1 end
+                            elseif redis.call('EXISTS', ARGV[5] .. id) == 1 then
+                                uncertain = true
+                            end
+                        end
+                    end
+                    redis.call('ZREMRANGEBYRANK', KEYS[i], 0, -keep - 1)
+                    if unread > 0 and redis.call('EXISTS', KEYS[i + 1]) == 1
+                            and redis.call('DECRBY', KEYS[i + 1], unread) < 0 then
+                        uncertain = true
+                    end
+                end
+                if uncertain then recount[#recount + 1] = (i + 2) / 3 end
+            end
+            return recount
+            """, List.class);
+    
+    // Moves the recipient's watermark forward (never back) and resets the unread counter. Returns the watermark.
+    private static final RedisScript<Long> MARK_ALL_READ_SCRIPT = new DefaultRedisScript<>("""
+            local watermark = redis.call('GET', KEYS[1])
+            if not watermark or tonumber(watermark) < tonumber(ARGV[1]) then
+                watermark = ARGV[1]
+                redis.call('SET', KEYS[1], watermark, 'PX', ARGV[2])
+            end
+            redis.call('SET', KEYS[2], '0', 'PX', ARGV[2])
+            return tonumber(watermark)
+            """, Long.class);
     
     /**
      * Store a message in Redis with proper indexing
      */
     public String storeMessage(String projectId, String recipient, String message, String title, 
                              String channel, Map<String, Object> metadata) {
-        try {
-            String messageId = UUID.randomUUID().toString();
-            LocalDateTime now = LocalDateTime.now();
-            
-            Map<String, Object> messageData = new HashMap<>();
-            messageData.put("id", messageId);
-            messageData.put("projectId", projectId);
-            messageData.put("recipient", recipient);
-            messageData.put("message", message);
-            messageData.put("title", title);
-            messageData.put("channel", channel);
-            messageData.put("metadata", metadata != null ? metadata : new HashMap<>());
-            messageData.put("createdAt", now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            messageData.put("status", "STORED");
-            messageData.put("read", false);
-            
-            // Store the message with TTL
-            String messageKey = MESSAGE_KEY_PREFIX + messageId;
-            redisTemplate.opsForValue().set(messageKey, messageData, notificationTtlDays, TimeUnit.DAYS);
-            
-            // Add to user's message list
-            String userMessagesKey = USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient;
-            redisTemplate.opsForList().leftPush(userMessagesKey, messageId);
-            
-            // Trim to keep only recent messages
-            redisTemplate.opsForList().trim(userMessagesKey, 0, maxNotificationsPerUser - 1);
-            redisTemplate.expire(userMessagesKey, notificationTtlDays, TimeUnit.DAYS);
-            
-            // Add to project's message list
-            String projectMessagesKey = PROJECT_MESSAGES_KEY_PREFIX + projectId;
-            redisTemplate.opsForList().leftPush(projectMessagesKey, messageId);
-            redisTemplate.expire(projectMessagesKey, notificationTtlDays, TimeUnit.DAYS);
-            
-            log.info("Message stored successfully: {} for recipient: {} in project: {}", 
-                    messageId, recipient, projectId);
-            
-            return messageId;
-            
-        } catch (Exception e) {
-            log.error("Failed to store message for recipient: {} in project: {}", recipient, projectId, e);
-            throw new RuntimeException("Failed to store message", e);
+        return storeMessages(projectId, List.of(recipient), message, title, channel, metadata).get(0);
+    }
+    
+    /**
+     * Store the same message for many recipients. All writes for a batch of recipients are sent
+     * in a single pipeline, so a fan-out costs one Redis round trip per batch instead of six per recipient.
+     * With the compact encoding the content is written once, with the first batch, and each recipient
+     * entry only references it.
+     */
+    public List<String> storeMessages(String projectId, List<String> recipients, String message, String title,
+                                      String channel, Map<String, Object> metadata) {
+        Instant now = Instant.now();
+        String contentId = UUID.randomUUID().toString();
+        Map<String, String> content = useCompactEncoding()
+                ? messageCodec.encodeContent(projectId, message, title, channel, metadata, now.toEpochMilli())
+                : null;
+        
+        List<String> messageIds = new ArrayList<>(recipients.size());
+        for (int from = 0; from < recipients.size(); from += pipelineBatchSize) {
+            List<String> batch = recipients.subList(from, Math.min(from + pipelineBatchSize, recipients.size()));
+            try {
+                messageIds.addAll(storeBatch(projectId, batch, message, title, channel, metadata, now,
+                        contentId, from == 0 ? content : null));
+            } catch (Exception e) {
+                log.error("Failed to store messages for {} recipients in project: {}", batch.size(), projectId, e);
+                throw new RuntimeException("Failed to store message", e);
+            }
         }
+        
+        log.info("Stored {} messages in project: {}", messageIds.size(), projectId);
+        return messageIds;
+    }
+    
+    private List<String> storeBatch(String projectId, List<String> recipients, String message, String title,
+                                    String channel, Map<String, Object> metadata, Instant now,
+                                    String contentId, Map<String, String> content) {
+        String createdAt = LocalDateTime.ofInstant(now, ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        long createdAtMillis = now.toEpochMilli();
+        long expiresAt = createdAtMillis + TimeUnit.DAYS.toMillis(notificationTtlDays);
+        List<String> messageIds = new ArrayList<>(recipients.size());
+        
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                
+                // Compact writes run on the same pipelined connection, without the JSON value serializer
+                if (content != null) {
+                    String contentKey = CONTENT_KEY_PREFIX + contentId;
+                    stringRedisTemplate.opsForHash().putAll(contentKey, content);
+                    stringRedisTemplate.expire(contentKey, notificationTtlDays, TimeUnit.DAYS);
+                }
+                
+                for (String recipient : recipients) {
+                    String messageId = UUID.randomUUID().toString();
+                    messageIds.add(messageId);
+                    
+                    // Store the message with TTL
+                    if (useCompactEncoding()) {
+                        String messageKey = COMPACT_MESSAGE_KEY_PREFIX + messageId;
+                        stringRedisTemplate.opsForHash().putAll(messageKey, messageCodec.encodeRecipient(contentId, recipient));
+                        stringRedisTemplate.expire(messageKey, notificationTtlDays, TimeUnit.DAYS);
+                    } else {
+                        Map<String, Object> messageData = new HashMap<>();
+                        messageData.put("id", messageId);
+                        messageData.put("projectId", projectId);
+                        messageData.put("recipient", recipient);
+                        messageData.put("message", message);
+                        messageData.put("title", title);
+                        messageData.put("channel", channel);
+                        messageData.put("metadata", metadata != null ? metadata : new HashMap<>());
+                        messageData.put("createdAt", createdAt);
+                        messageData.put("status", "STORED");
+                        messageData.put("read", false);
+                        ops.opsForValue().set(MESSAGE_KEY_PREFIX + messageId, messageData, notificationTtlDays, TimeUnit.DAYS);
+                    }
+                    
+                    // Add to user's inbox; it is trimmed to the most recent messages afterwards
+                    String inboxKey = USER_INBOX_KEY_PREFIX + projectId + ":" + recipient;
+                    ops.opsForZSet().add(inboxKey, messageId, createdAtMillis);
+                    ops.expire(inboxKey, notificationTtlDays, TimeUnit.DAYS);
+                    
+                    // New messages are unread; the counter is fixed up when this message expires
+                    String unreadKey = UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient;
+                    ops.opsForValue().increment(unreadKey);
+                    ops.expire(unreadKey, notificationTtlDays, TimeUnit.DAYS);
+                    ops.opsForZSet().addIfAbsent(UNREAD_RECONCILE_KEY, projectId + ":" + recipient, expiresAt);
+                }
+                
+                // Add the whole batch to today's project index, keeping only the newest entries of the day
+                LocalDate day = LocalDate.ofInstant(now, ZoneOffset.UTC);
+                String projectIndexKey = projectIndexKey(projectId, day);
+                Set<ZSetOperations.TypedTuple<Object>> entries = new HashSet<>();
+                for (String messageId : messageIds) {
+                    entries.add(ZSetOperations.TypedTuple.of(messageId, (double) createdAtMillis));
+                }
+                ops.opsForZSet().add(projectIndexKey, entries);
+                ops.opsForZSet().removeRange(projectIndexKey, 0, -projectIndexMaxPerDay - 1);
+                ops.expireAt(projectIndexKey, Date.from(day.plusDays(notificationTtlDays + 1L).atStartOfDay(ZoneOffset.UTC).toInstant()));
+                
+                // Roll the batch into the project counters
+                incrementProjectStats(PROJECT_STATS_KEY_PREFIX + projectId, channel, messageIds.size());
+                String dailyStatsKey = dailyStatsKey(projectId, day);
+                incrementProjectStats(dailyStatsKey, channel, messageIds.size());
+                stringRedisTemplate.expire(dailyStatsKey, dailyStatsDays + 1L, TimeUnit.DAYS);
+                return null;
+            }
+        });
+        
+        trimInboxes(projectId, recipients, createdAtMillis);
+        return messageIds;
+    }
+    
+    private void incrementProjectStats(String statsKey, String channel, long count) {
+        stringRedisTemplate.opsForHash().increment(statsKey, STATS_TOTAL_FIELD, count);
+        if (channel != null) {
+            stringRedisTemplate.opsForHash().increment(statsKey, STATS_CHANNEL_FIELD_PREFIX + channel, count);
+        }
+    }
+    
+    private static String projectIndexKey(String projectId, LocalDate day) {
+        return PROJECT_INDEX_KEY_PREFIX + projectId + ":" + day;
+    }
+    
+    private static String dailyStatsKey(String projectId, LocalDate day) {
+        return PROJECT_STATS_KEY_PREFIX + projectId + ":" + day;
+    }
+    
+    /**
+     * Trim the batch's inboxes to their newest entries in one script call, which takes the unread
+     * entries it removes off each counter. The few inboxes whose counter it cannot keep exact are
+     * queued for recounting, all in one more round trip.
+     */
+    private void trimInboxes(String projectId, List<String> recipients, long createdAtMillis) {
+        List<String> keys = new ArrayList<>(3 * recipients.size());
+        for (String recipient : recipients) {
+            keys.add(USER_INBOX_KEY_PREFIX + projectId + ":" + recipient);
+            keys.add(UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient);
+            keys.add(READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient);
+        }
+        List<?> recount = stringRedisTemplate.execute(TRIM_INBOXES_SCRIPT, keys,
+                Integer.toString(maxNotificationsPerUser), Long.toString(createdAtMillis),
+                COMPACT_MESSAGE_KEY_PREFIX, MessageCodec.READ_AT, MESSAGE_KEY_PREFIX);
+        if (recount == null || recount.isEmpty()) {
+            return;
+        }
+        
+        double now = System.currentTimeMillis();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Object position : recount) {
+                    String recipient = recipients.get(((Number) position).intValue() - 1);
+                    ops.opsForZSet().add(UNREAD_RECONCILE_KEY, projectId + ":" + recipient, now);
+                }
+                return null;
+            }
+        });
     }
     
     /**
@@ -85,28 +314,294 @@ public class MessageStorageService {
      */
     public List<Map<String, Object>> getUserMessages(String projectId, String recipient, int limit) {
         try {
-            String userMessagesKey = USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient;
-            List<Object> messageIds = redisTemplate.opsForList().range(userMessagesKey, 0, limit - 1);
+            return getInbox(projectId, recipient, limit, null, null).messages();
             
-            if (messageIds == null || messageIds.isEmpty()) {
-                return new ArrayList<>();
+        } catch (Exception e) {
+            log.error("Failed to retrieve messages for recipient: {} in project: {}", recipient, projectId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get a page of a user's inbox together with their unread count in at most three round trips:
+     * one pipeline for the page of message IDs, the read watermark and the counter, one pipeline of
+     * HGETALLs for the recipient entries, and one for the content they share plus any entries only
+     * found in the legacy JSON form. The last is skipped when there is nothing to resolve.
+     * <p>
+     * Without cursors this is the newest page. {@code before} pages towards older messages,
+     * {@code after} returns messages newer than the cursor, oldest first, for incremental sync.
+     *
+     * @throws IllegalArgumentException if both cursors are given, a cursor is malformed or limit is not positive
+     */
+    public InboxPage getInbox(String projectId, String recipient, int limit, String before, String after) {
+        return getInbox(projectId, recipient, limit, before, after, true);
+    }
+    
+    private InboxPage getInbox(String projectId, String recipient, int limit, String before, String after,
+                               boolean migrateLegacy) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of before and after may be given");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        InboxCursor beforeCursor = before != null ? InboxCursor.decode(before) : null;
+        InboxCursor afterCursor = after != null ? InboxCursor.decode(after) : null;
+        String inboxKey = USER_INBOX_KEY_PREFIX + projectId + ":" + recipient;
+        String legacyKey = USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient;
+        String unreadKey = UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient;
+        String watermarkKey = READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient;
+        
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ZSetOperations<String, Object> zSet = ops.opsForZSet();
+                // Fetch one extra entry to know whether another page exists. Entries sharing the
+                // cursor's millisecond are fetched separately and filtered by message ID.
+                if (beforeCursor != null) {
+                    double score = beforeCursor.createdAtMillis();
+                    zSet.reverseRangeByScoreWithScores(inboxKey, score, score);
+                    zSet.reverseRangeByScoreWithScores(inboxKey, Double.NEGATIVE_INFINITY, Math.nextDown(score), 0, limit + 1);
+                } else if (afterCursor != null) {
+                    double score = afterCursor.createdAtMillis();
+                    zSet.rangeByScoreWithScores(inboxKey, score, score);
+                    zSet.rangeByScoreWithScores(inboxKey, Math.nextUp(score), Double.POSITIVE_INFINITY, 0, limit + 1);
+                } else {
+                    zSet.reverseRangeWithScores(inboxKey, 0, limit);
+                }
+                ops.opsForValue().get(watermarkKey);
+                ops.opsForValue().get(unreadKey);
+                ops.hasKey(legacyKey);
+                return null;
             }
-            
-            List<Map<String, Object>> messages = new ArrayList<>();
-            for (Object messageId : messageIds) {
-                String messageKey = MESSAGE_KEY_PREFIX + messageId;
-                Object messageData = redisTemplate.opsForValue().get(messageKey);
-                if (messageData instanceof Map) {
-                    messages.add((Map<String, Object>) messageData);
+        });
+        
+        if (migrateLegacy && isTrue(results.get(results.size() - 1))) {
+            migrateLegacyInbox(projectId, recipient);
+            return getInbox(projectId, recipient, limit, before, after, false);
+        }
+        
+        List<ZSetOperations.TypedTuple<Object>> entries = new ArrayList<>();
+        if (beforeCursor != null) {
+            entries.addAll(filterTies(results.get(0), beforeCursor, false));
+            entries.addAll(toTuples(results.get(1)));
+        } else if (afterCursor != null) {
+            entries.addAll(filterTies(results.get(0), afterCursor, true));
+            entries.addAll(toTuples(results.get(1)));
+        } else {
+            entries.addAll(toTuples(results.get(0)));
+        }
+        
+        boolean hasMore = entries.size() > limit;
+        List<ZSetOperations.TypedTuple<Object>> page = hasMore ? entries.subList(0, limit) : entries;
+        List<Map<String, Object>> messages = loadMessages(page.stream().map(ZSetOperations.TypedTuple::getValue).toList());
+        applyReadWatermark(messages, toMillis(results.get(results.size() - 3)));
+        
+        Object counter = results.get(results.size() - 2);
+        long unreadCount = counter instanceof Number count
+                ? Math.max(0, count.longValue())
+                : reconcileUnreadCount(projectId, recipient);
+        
+        String nextCursor = hasMore ? cursorOf(page.get(page.size() - 1)) : null;
+        String syncCursor;
+        if (afterCursor != null) {
+            syncCursor = page.isEmpty() ? after : cursorOf(page.get(page.size() - 1));
+        } else if (beforeCursor == null && !page.isEmpty()) {
+            syncCursor = cursorOf(page.get(0));
+        } else {
+            syncCursor = null;
+        }
+        return new InboxPage(messages, unreadCount, nextCursor, syncCursor);
+    }
+    
+    /**
+     * Of the entries sharing the cursor's timestamp, keep those past the cursor in paging order.
+     * Redis orders equal scores by member, so that is the tie-breaker in both directions.
+     */
+    private List<ZSetOperations.TypedTuple<Object>> filterTies(Object ties, InboxCursor cursor, boolean newer) {
+        return toTuples(ties).stream()
+                .filter(tuple -> {
+                    int comparison = String.valueOf(tuple.getValue()).compareTo(cursor.messageId());
+                    return newer ? comparison > 0 : comparison < 0;
+                })
+                .toList();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<ZSetOperations.TypedTuple<Object>> toTuples(Object result) {
+        return result instanceof Collection<?> tuples
+                ? new ArrayList<>((Collection<ZSetOperations.TypedTuple<Object>>) tuples)
+                : List.of();
+    }
+    
+    private String cursorOf(ZSetOperations.TypedTuple<Object> entry) {
+        long createdAtMillis = entry.getScore() != null ? entry.getScore().longValue() : 0;
+        return new InboxCursor(createdAtMillis, String.valueOf(entry.getValue())).encode();
+    }
+    
+    private static boolean isTrue(Object reply) {
+        return Boolean.TRUE.equals(reply) || reply instanceof Number number && number.longValue() > 0;
+    }
+    
+    /**
+     * Move an inbox stored as a list (newest first) into the sorted-set index, scoring each
+     * message by its createdAt. Messages that already expired are dropped.
+     */
+    private void migrateLegacyInbox(String projectId, String recipient) {
+        String legacyKey = USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient;
+        String inboxKey = USER_INBOX_KEY_PREFIX + projectId + ":" + recipient;
+        List<Object> messageIds = redisTemplate.opsForList().range(legacyKey, 0, -1);
+        List<Map<String, Object>> messages = loadMessages(messageIds);
+        
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Map<String, Object> message : messages) {
+                    ops.opsForZSet().add(inboxKey, message.get("id"), createdAtMillis(message));
+                }
+                if (!messages.isEmpty()) {
+                    ops.opsForZSet().removeRange(inboxKey, 0, -maxNotificationsPerUser - 1);
+                    ops.expire(inboxKey, notificationTtlDays, TimeUnit.DAYS);
                 }
+                ops.delete(legacyKey);
+                return null;
             }
-            
-            return messages;
-            
-        } catch (Exception e) {
-            log.error("Failed to retrieve messages for recipient: {} in project: {}", recipient, projectId, e);
+        });
+        log.info("Migrated {} messages to the inbox index for recipient: {} in project: {}",
+                messages.size(), recipient, projectId);
+    }
+    
+    private static long createdAtMillis(Map<String, Object> message) {
+        if (message.get("createdAt") instanceof String createdAt) {
+            try {
+                return LocalDateTime.parse(createdAt).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Fall through to now, which keeps the message but may misplace it
+            }
+        }
+        return System.currentTimeMillis();
+    }
+    
+    /**
+     * Fetch message bodies in inbox order, skipping expired messages. Recipient entries take one
+     * pipelined HGETALL round trip; the shared content they reference and IDs only found in the
+     * legacy JSON form are fetched together in a second one.
+     */
+    private List<Map<String, Object>> loadMessages(List<?> messageIds) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        for (Map<String, Object> message : loadMessagesByPosition(messageIds)) {
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+    
+    /**
+     * Like {@link #loadMessages}, but keeps a null in place of each message that was not found.
+     */
+    private List<Map<String, Object>> loadMessagesByPosition(List<?> messageIds) {
+        if (messageIds == null || messageIds.isEmpty()) {
             return new ArrayList<>();
         }
+        
+        List<Object> hashes = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Object messageId : messageIds) {
+                    ops.opsForHash().entries(COMPACT_MESSAGE_KEY_PREFIX + messageId);
+                }
+                return null;
+            }
+        });
+        
+        // Entries that reference shared content and entries only found in the legacy form are
+        // resolved together in a second round trip
+        List<Map<String, String>> entries = new ArrayList<>(Collections.nCopies(messageIds.size(), null));
+        List<Map<String, Object>> found = new ArrayList<>(Collections.nCopies(messageIds.size(), null));
+        Set<String> contentIds = new LinkedHashSet<>();
+        List<Integer> legacyPositions = new ArrayList<>();
+        for (int i = 0; i < messageIds.size(); i++) {
+            Map<String, String> entry = i < hashes.size() ? asFields(hashes.get(i)) : null;
+            String contentId = messageCodec.contentRef(entry);
+            if (contentId != null) {
+                entries.set(i, entry);
+                contentIds.add(contentId);
+            } else if (entry != null && !entry.isEmpty()) {
+                found.set(i, messageCodec.decode(String.valueOf(messageIds.get(i)), entry));
+            } else {
+                legacyPositions.add(i);
+            }
+        }
+        
+        if (!contentIds.isEmpty() || !legacyPositions.isEmpty()) {
+            List<String> contentIdList = new ArrayList<>(contentIds);
+            List<Object> values = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (String contentId : contentIdList) {
+                        ops.opsForHash().entries(CONTENT_KEY_PREFIX + contentId);
+                    }
+                    for (Integer position : legacyPositions) {
+                        ops.opsForValue().get(MESSAGE_KEY_PREFIX + messageIds.get(position));
+                    }
+                    return null;
+                }
+            });
+            
+            Map<String, Map<String, String>> contents = new HashMap<>();
+            for (int j = 0; j < contentIdList.size() && j < values.size(); j++) {
+                contents.put(contentIdList.get(j), asFields(values.get(j)));
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                Map<String, String> entry = entries.get(i);
+                if (entry != null) {
+                    found.set(i, messageCodec.decode(String.valueOf(messageIds.get(i)), entry,
+                            contents.get(messageCodec.contentRef(entry))));
+                }
+            }
+            for (int j = 0; j < legacyPositions.size() && contentIdList.size() + j < values.size(); j++) {
+                Object value = values.get(contentIdList.size() + j);
+                found.set(legacyPositions.get(j), value instanceof String json ? messageCodec.decodeLegacy(json) : null);
+            }
+        }
+        return found;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> asFields(Object hash) {
+        return hash instanceof Map<?, ?> fields ? (Map<String, String>) fields : null;
+    }
+    
+    /**
+     * A message as read from Redis, with the encoding it was found in so updates go to the same key.
+     */
+    private record StoredMessage(Map<String, Object> data, boolean compact) {}
+    
+    private StoredMessage readMessage(String messageId) {
+        Map<String, String> fields = stringRedisTemplate.<String, String>opsForHash().entries(COMPACT_MESSAGE_KEY_PREFIX + messageId);
+        String contentId = messageCodec.contentRef(fields);
+        Map<String, Object> message = contentId != null
+                ? messageCodec.decode(messageId, fields,
+                        stringRedisTemplate.<String, String>opsForHash().entries(CONTENT_KEY_PREFIX + contentId))
+                : messageCodec.decode(messageId, fields);
+        if (message != null) {
+            return new StoredMessage(message, true);
+        }
+        message = messageCodec.decodeLegacy(stringRedisTemplate.opsForValue().get(MESSAGE_KEY_PREFIX + messageId));
+        return message != null ? new StoredMessage(message, false) : null;
+    }
+    
+    private boolean useCompactEncoding() {
+        return !"json".equalsIgnoreCase(encoding);
     }
     
     /**
@@ -114,14 +609,16 @@ public class MessageStorageService {
      */
     public Map<String, Object> getMessage(String messageId) {
         try {
-            String messageKey = MESSAGE_KEY_PREFIX + messageId;
-            Object messageData = redisTemplate.opsForValue().get(messageKey);
-            
-            if (messageData instanceof Map) {
-                return (Map<String, Object>) messageData;
+            StoredMessage stored = readMessage(messageId);
+            if (stored == null) {
+                return null;
             }
-            
-            return null;
+            Map<String, Object> message = stored.data();
+            if (!Boolean.TRUE.equals(message.get("read")) && message.get("projectId") != null && message.get("recipient") != null) {
+                applyReadWatermark(List.of(message), toMillis(redisTemplate.opsForValue().get(
+                        READ_WATERMARK_KEY_PREFIX + message.get("projectId") + ":" + message.get("recipient"))));
+            }
+            return message;
             
         } catch (Exception e) {
             log.error("Failed to retrieve message: {}", messageId, e);
@@ -130,23 +627,57 @@ public class MessageStorageService {
     }
     
     /**
-     * Mark a message as read
+     * Mark a message as read. Compact entries are flagged with one atomic script that sets only the
+     * read field, so concurrent reads decrement the unread counter once and the entry keeps its TTL.
      */
     public boolean markMessageAsRead(String messageId) {
         try {
-            String messageKey = MESSAGE_KEY_PREFIX + messageId;
-            Object messageData = redisTemplate.opsForValue().get(messageKey);
+            StoredMessage stored = readMessage(messageId);
+            if (stored == null) {
+                return false;
+            }
+            Map<String, Object> message = stored.data();
+            Object projectId = message.get("projectId");
+            Object recipient = message.get("recipient");
             
-            if (messageData instanceof Map) {
-                Map<String, Object> message = (Map<String, Object>) messageData;
-                message.put("read", true);
-                message.put("readAt", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                
-                redisTemplate.opsForValue().set(messageKey, message, notificationTtlDays, TimeUnit.DAYS);
-                return true;
+            if (stored.compact()) {
+                if (projectId == null || recipient == null || Boolean.TRUE.equals(message.get("read"))) {
+                    return true;
+                }
+                String now = Long.toString(System.currentTimeMillis());
+                Long result = stringRedisTemplate.execute(MARK_READ_SCRIPT,
+                        List.of(COMPACT_MESSAGE_KEY_PREFIX + messageId,
+                                UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient,
+                                READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient),
+                        MessageCodec.READ_AT, now, Long.toString(createdAtMillis(message)));
+                if (result != null && result == MARK_READ_COUNTER_NEGATIVE) {
+                    // Queued here rather than in the script, so the member is written with the same serializer as everywhere else
+                    queueUnreadReconcile(projectId, recipient);
+                }
+                return result == null || result >= 0;
             }
             
-            return false;
+            // Messages in the legacy JSON form are rewritten whole until they expire
+            boolean wasUnread = !Boolean.TRUE.equals(message.get("read"));
+            message.put("read", true);
+            message.put("readAt", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForValue().set(MESSAGE_KEY_PREFIX + messageId, message, notificationTtlDays, TimeUnit.DAYS);
+                    if (wasUnread) {
+                        decrementUnreadCount(ops, projectId, recipient);
+                    }
+                    return null;
+                }
+            });
+            if (wasUnread) {
+                reconcileIfNegative(results, projectId, recipient);
+            }
+            return true;
             
         } catch (Exception e) {
             log.error("Failed to mark message as read: {}", messageId, e);
@@ -155,14 +686,60 @@ public class MessageStorageService {
     }
     
     /**
-     * Get unread message count for a user
+     * Mark every message in an inbox as read by moving the recipient's read watermark to now and
+     * resetting the unread counter, one script call however many messages the inbox holds.
+     * Returns the watermark in epoch millis.
+     */
+    public long markAllAsRead(String projectId, String recipient) {
+        Long watermark = stringRedisTemplate.execute(MARK_ALL_READ_SCRIPT,
+                List.of(READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient,
+                        UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient),
+                Long.toString(System.currentTimeMillis()), Long.toString(TimeUnit.DAYS.toMillis(notificationTtlDays)));
+        log.info("Marked all messages as read for recipient: {} in project: {}", recipient, projectId);
+        return watermark != null ? watermark : System.currentTimeMillis();
+    }
+    
+    /**
+     * Messages created at or before the watermark are read, with the watermark as their read time.
+     */
+    private static void applyReadWatermark(List<Map<String, Object>> messages, long watermark) {
+        if (watermark <= 0) {
+            return;
+        }
+        for (Map<String, Object> message : messages) {
+            if (!Boolean.TRUE.equals(message.get("read")) && createdAtMillis(message) <= watermark) {
+                message.put("read", true);
+                message.put("readAt", LocalDateTime.ofInstant(Instant.ofEpochMilli(watermark), ZoneId.systemDefault())
+                        .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            }
+        }
+    }
+    
+    private static long toMillis(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Get unread message count for a user. Reads the maintained counter; inboxes written before
+     * counters existed are counted once and seeded.
      */
     public long getUnreadMessageCount(String projectId, String recipient) {
         try {
-            List<Map<String, Object>> messages = getUserMessages(projectId, recipient, maxNotificationsPerUser);
-            return messages.stream()
-                    .filter(message -> !Boolean.TRUE.equals(message.get("read")))
-                    .count();
+            Object count = redisTemplate.opsForValue().get(UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient);
+            if (count instanceof Number number) {
+                return Math.max(0, number.longValue());
+            }
+            return reconcileUnreadCount(projectId, recipient);
                     
         } catch (Exception e) {
             log.error("Failed to get unread count for recipient: {} in project: {}", recipient, projectId, e);
@@ -171,19 +748,125 @@ public class MessageStorageService {
     }
     
     /**
-     * Delete a message
+     * Recount unread messages in an inbox and overwrite its counter. Also reschedules the next
+     * check for when the oldest remaining message expires.
      */
-    public boolean deleteMessage(String messageId, String projectId, String recipient) {
+    public long reconcileUnreadCount(String projectId, String recipient) {
+        String inboxKey = USER_INBOX_KEY_PREFIX + projectId + ":" + recipient;
+        String unreadKey = UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient;
+        String member = projectId + ":" + recipient;
+        
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient))) {
+            migrateLegacyInbox(projectId, recipient);
+        }
+        Set<ZSetOperations.TypedTuple<Object>> entries =
+                redisTemplate.opsForZSet().reverseRangeWithScores(inboxKey, 0, maxNotificationsPerUser - 1);
+        List<ZSetOperations.TypedTuple<Object>> inbox = toTuples(entries);
+        List<Map<String, Object>> messages = loadMessages(inbox.stream().map(ZSetOperations.TypedTuple::getValue).toList());
+        if (!messages.isEmpty()) {
+            applyReadWatermark(messages, toMillis(redisTemplate.opsForValue().get(
+                    READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient)));
+        }
+        
+        long unread = 0;
+        for (Map<String, Object> message : messages) {
+            if (!Boolean.TRUE.equals(message.get("read"))) {
+                unread++;
+            }
+        }
+        
+        long count = unread;
+        // Inbox is newest first, so the last entry is the next message to expire
+        Double oldestScore = inbox.isEmpty() ? null : inbox.get(inbox.size() - 1).getScore();
+        Double nextCheck = oldestScore == null ? null : oldestScore + TimeUnit.DAYS.toMillis(notificationTtlDays);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                if (count > 0) {
+                    ops.opsForValue().set(unreadKey, count, notificationTtlDays, TimeUnit.DAYS);
+                } else {
+                    ops.delete(unreadKey);
+                }
+                if (nextCheck != null) {
+                    ops.opsForZSet().add(UNREAD_RECONCILE_KEY, member, nextCheck);
+                } else {
+                    ops.opsForZSet().remove(UNREAD_RECONCILE_KEY, member);
+                }
+                return null;
+            }
+        });
+        return count;
+    }
+    
+    /**
+     * Fix unread counters that drifted because messages expired or were trimmed out of the inbox.
+     * Only inboxes that are due are recomputed, a bounded batch per run.
+     */
+    @Scheduled(fixedDelayString = "${notification.storage.unread-reconcile-ms:60000}")
+    public void reconcileUnreadCounts() {
         try {
-            String messageKey = MESSAGE_KEY_PREFIX + messageId;
-            String userMessagesKey = USER_MESSAGES_KEY_PREFIX + projectId + ":" + recipient;
-            String projectMessagesKey = PROJECT_MESSAGES_KEY_PREFIX + projectId;
+            Set<Object> due = redisTemplate.opsForZSet().rangeByScore(
+                    UNREAD_RECONCILE_KEY, 0, System.currentTimeMillis(), 0, unreadReconcileBatchSize);
+            if (due == null || due.isEmpty()) {
+                return;
+            }
             
-            // Remove from Redis
-            redisTemplate.delete(messageKey);
-            redisTemplate.opsForList().remove(userMessagesKey, 1, messageId);
-            redisTemplate.opsForList().remove(projectMessagesKey, 1, messageId);
+            int reconciled = 0;
+            for (Object member : due) {
+                String inbox = String.valueOf(member);
+                int separator = inbox.indexOf(':');
+                if (separator < 0) {
+                    redisTemplate.opsForZSet().remove(UNREAD_RECONCILE_KEY, member);
+                    continue;
+                }
+                try {
+                    reconcileUnreadCount(inbox.substring(0, separator), inbox.substring(separator + 1));
+                    reconciled++;
+                } catch (Exception e) {
+                    log.warn("Failed to reconcile unread count for inbox: {}", inbox, e);
+                }
+            }
+            log.debug("Reconciled unread counts for {} inboxes", reconciled);
             
+        } catch (Exception e) {
+            log.error("Unread count reconciliation failed", e);
+        }
+    }
+    
+    private void decrementUnreadCount(RedisOperations<String, Object> ops, Object projectId, Object recipient) {
+        if (projectId != null && recipient != null) {
+            ops.opsForValue().decrement(UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient);
+        }
+    }
+    
+    /**
+     * The counter update is the last command of the read and delete pipelines. A negative result means the
+     * counter had drifted (e.g. it expired or two reads raced), so the inbox is queued for recounting.
+     */
+    private void reconcileIfNegative(List<Object> results, Object projectId, Object recipient) {
+        if (projectId == null || recipient == null || results == null || results.isEmpty()) {
+            return;
+        }
+        if (results.get(results.size() - 1) instanceof Long count && count < 0) {
+            queueUnreadReconcile(projectId, recipient);
+        }
+    }
+    
+    /**
+     * Queue an inbox for recounting on the next reconcile run.
+     */
+    private void queueUnreadReconcile(Object projectId, Object recipient) {
+        redisTemplate.opsForZSet().add(UNREAD_RECONCILE_KEY, projectId + ":" + recipient, System.currentTimeMillis());
+    }
+    
+    /**
+     * Delete a message
+     */
+    public boolean deleteMessage(String messageId, String projectId, String recipient) {
+        try {
+            deleteMessages(projectId, recipient, List.of(messageId));
             log.info("Message deleted successfully: {}", messageId);
             return true;
             
@@ -193,17 +876,117 @@ public class MessageStorageService {
         }
     }
     
+    /**
+     * Delete many messages from one recipient's inbox. Each batch reads the messages (at most two
+     * round trips) and removes them in one pipeline of key deletes and sorted-set removals, so the
+     * cost does not grow with the size of the inbox or the project. Messages that belong to another
+     * project are left alone. An inbox still in the legacy list form keeps the IDs, which are
+     * dropped when it is migrated because their messages are gone. Returns the number of messages
+     * that were found and deleted.
+     */
+    public int deleteMessages(String projectId, String recipient, List<String> messageIds) {
+        int deleted = 0;
+        for (int from = 0; from < messageIds.size(); from += pipelineBatchSize) {
+            deleted += deleteBatch(projectId, recipient,
+                    messageIds.subList(from, Math.min(from + pipelineBatchSize, messageIds.size())));
+        }
+        return deleted;
+    }
+    
+    private int deleteBatch(String projectId, String recipient, List<String> messageIds) {
+        List<Map<String, Object>> stored = loadMessagesByPosition(messageIds);
+        List<Map<String, Object>> unreadMessages = stored.stream()
+                .filter(message -> message != null && !Boolean.TRUE.equals(message.get("read")))
+                .toList();
+        if (!unreadMessages.isEmpty()) {
+            applyReadWatermark(unreadMessages, toMillis(redisTemplate.opsForValue().get(
+                    READ_WATERMARK_KEY_PREFIX + projectId + ":" + recipient)));
+        }
+        
+        List<String> owned = new ArrayList<>();
+        Map<LocalDate, List<Object>> byDay = new HashMap<>();
+        int found = 0;
+        long unread = 0;
+        for (int i = 0; i < messageIds.size(); i++) {
+            Map<String, Object> message = i < stored.size() ? stored.get(i) : null;
+            if (message != null && message.get("projectId") != null && !projectId.equals(message.get("projectId"))) {
+                continue;
+            }
+            owned.add(messageIds.get(i));
+            if (message != null) {
+                found++;
+                LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(createdAtMillis(message)), ZoneOffset.UTC);
+                byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(messageIds.get(i));
+                if (!Boolean.TRUE.equals(message.get("read"))) {
+                    unread++;
+                }
+            }
+        }
+        if (owned.isEmpty()) {
+            return 0;
+        }
+        
+        String inboxKey = USER_INBOX_KEY_PREFIX + projectId + ":" + recipient;
+        long unreadDeleted = unread;
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                List<String> keys = new ArrayList<>(owned.size() * 2);
+                for (String messageId : owned) {
+                    keys.add(COMPACT_MESSAGE_KEY_PREFIX + messageId);
+                    keys.add(MESSAGE_KEY_PREFIX + messageId);
+                }
+                ops.delete(keys);
+                ops.opsForZSet().remove(inboxKey, owned.toArray());
+                byDay.forEach((day, ids) -> ops.opsForZSet().remove(projectIndexKey(projectId, day), ids.toArray()));
+                if (unreadDeleted > 0) {
+                    ops.opsForValue().increment(UNREAD_COUNT_KEY_PREFIX + projectId + ":" + recipient, -unreadDeleted);
+                }
+                return null;
+            }
+        });
+        if (unreadDeleted > 0) {
+            reconcileIfNegative(results, projectId, recipient);
+        }
+        return found;
+    }
+    
     /**
      * Get message statistics for a project
      */
     public Map<String, Object> getProjectMessageStats(String projectId) {
         try {
-            String projectMessagesKey = PROJECT_MESSAGES_KEY_PREFIX + projectId;
-            Long totalMessages = redisTemplate.opsForList().size(projectMessagesKey);
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            List<Object> hashes = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.opsForHash().entries(PROJECT_STATS_KEY_PREFIX + projectId);
+                    for (int i = 0; i < dailyStatsDays; i++) {
+                        ops.opsForHash().entries(dailyStatsKey(projectId, today.minusDays(i)));
+                    }
+                    return null;
+                }
+            });
+            
+            Map<String, Object> totals = countsByField(hashes.isEmpty() ? null : asFields(hashes.get(0)));
+            List<Map<String, Object>> daily = new ArrayList<>();
+            for (int i = 1; i < hashes.size(); i++) {
+                Map<String, Object> counts = countsByField(asFields(hashes.get(i)));
+                if ((long) counts.get("totalMessages") > 0) {
+                    counts.put("date", today.minusDays(i - 1).toString());
+                    daily.add(counts);
+                }
+            }
             
             Map<String, Object> stats = new HashMap<>();
             stats.put("projectId", projectId);
-            stats.put("totalMessages", totalMessages != null ? totalMessages : 0);
+            stats.put("totalMessages", totals.get("totalMessages"));
+            stats.put("byChannel", totals.get("byChannel"));
+            stats.put("daily", daily);
             stats.put("ttlDays", notificationTtlDays);
             stats.put("maxPerUser", maxNotificationsPerUser);
             
@@ -215,6 +998,25 @@ public class MessageStorageService {
         }
     }
     
+    private static Map<String, Object> countsByField(Map<String, String> fields) {
+        long total = 0;
+        Map<String, Long> byChannel = new TreeMap<>();
+        if (fields != null) {
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                if (STATS_TOTAL_FIELD.equals(field.getKey())) {
+                    total = Long.parseLong(field.getValue());
+                } else if (field.getKey().startsWith(STATS_CHANNEL_FIELD_PREFIX)) {
+                    byChannel.put(field.getKey().substring(STATS_CHANNEL_FIELD_PREFIX.length()), Long.parseLong(field.getValue()));
+                }
+            }
+        }
+        
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("totalMessages", total);
+        counts.put("byChannel", byChannel);
+        return counts;
+    }
+    
     /**
      * Check if Redis is healthy
      */
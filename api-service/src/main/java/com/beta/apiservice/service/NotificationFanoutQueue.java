@@ -0,0 +1,163 @@
+package com.beta.apiservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded write-behind stage between the HTTP request thread and Redis.
+ * Requests enqueue a {@link FanoutTask} and return; a small worker pool drains the queue
+ * and hands batches to {@link NotificationFanoutWriter}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationFanoutQueue {
+
+    private final NotificationFanoutWriter writer;
+
+    @Value("${notification.fanout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notification.fanout.workers:4}")
+    private int workerCount;
+
+    @Value("${notification.fanout.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.fanout.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    @Value("${notification.fanout.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private BlockingQueue<FanoutTask> queue;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "fanout-writer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainLoop);
+        }
+        log.info("Fan-out write-behind queue started: capacity={}, workers={}, batchSize={}",
+                queueCapacity, workerCount, batchSize);
+    }
+
+    /**
+     * Queue a notification for persistence. When the queue stays full for longer than the
+     * enqueue timeout, the task is written on the calling thread instead, which slows the
+     * producer down rather than dropping data.
+     */
+    public void enqueue(FanoutTask task) {
+        enqueued.increment();
+        try {
+            if (running && queue.offer(task, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        callerRuns.increment();
+        log.warn("Fan-out queue full or stopped, writing notification {} on caller thread", task.notificationId());
+        writeBatch(List.of(task));
+    }
+
+    private void drainLoop() {
+        List<FanoutTask> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                FanoutTask first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Fan-out worker failed to write batch of {} notifications", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<FanoutTask> batch) {
+        int batchFailures = writer.write(batch);
+        batches.increment();
+        written.add(batch.size() - batchFailures);
+        failed.add(batchFailures);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        log.info("Flushing fan-out queue ({} pending)", queue.size());
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Fan-out workers did not finish within {}s", shutdownTimeoutSeconds);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything the workers could not get to is written on the shutdown thread
+        List<FanoutTask> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+        log.info("Fan-out queue flushed: written={}, failed={}", written.sum(), failed.sum());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("workers", workerCount);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        stats.put("callerRuns", callerRuns.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,104 @@
+package com.beta.apiservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the Redis side of a notification fan-out: the notification status, the recipient
+ * notification indexes and the stored inbox messages.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationFanoutWriter {
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MessageStorageService messageStorageService;
+
+    private static final String NOTIFICATION_KEY_PREFIX = "user:notifications:";
+    private static final String STATUS_KEY_PREFIX = "notification:status:";
+    private static final int MAX_NOTIFICATIONS_PER_USER = 100;
+    private static final int NOTIFICATION_TTL_DAYS = 30;
+
+    @Value("${notification.storage.pipeline-batch-size:500}")
+    private int pipelineBatchSize;
+
+    /**
+     * Persist a batch of notifications.
+     *
+     * @return the number of notifications that could not be fully written
+     */
+    public int write(List<FanoutTask> tasks) {
+        int failed = 0;
+        storeStatuses(tasks);
+
+        for (FanoutTask task : tasks) {
+            try {
+                messageStorageService.storeMessages(
+                    task.projectId(),
+                    task.recipients(),
+                    task.request().message(),
+                    task.request().title(),
+                    task.request().channel(),
+                    task.request().metadata()
+                );
+                storeRecipientIndexes(task);
+            } catch (Exception e) {
+                failed++;
+                log.error("Failed to store messages for notification: {} in project: {}",
+                        task.notificationId(), task.projectId(), e);
+            }
+        }
+        return failed;
+    }
+
+    private void storeStatuses(List<FanoutTask> tasks) {
+        try {
+            // Notification-level status is written once per notification, for the whole batch at once
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (FanoutTask task : tasks) {
+                        String statusKey = STATUS_KEY_PREFIX + task.notificationId();
+                        ops.opsForValue().set(statusKey, task.notificationData(), NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to store status in Redis for {} notifications", tasks.size(), e);
+        }
+    }
+
+    private void storeRecipientIndexes(FanoutTask task) {
+        List<String> recipients = task.recipients();
+
+        // Add to each recipient's notification list (recent notifications), one pipeline per batch
+        for (int from = 0; from < recipients.size(); from += pipelineBatchSize) {
+            List<String> batch = recipients.subList(from, Math.min(from + pipelineBatchSize, recipients.size()));
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (String recipient : batch) {
+                        String recipientKey = NOTIFICATION_KEY_PREFIX + task.projectId() + ":" + recipient;
+                        ops.opsForList().leftPush(recipientKey, task.notificationId());
+                        ops.opsForList().trim(recipientKey, 0, MAX_NOTIFICATIONS_PER_USER - 1);
+                        ops.expire(recipientKey, NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.beta.apiservice.service;
 
+import com.beta.apiservice.dto.BulkItemResult;
+import com.beta.apiservice.dto.BulkSendResult;
 import com.beta.apiservice.dto.NotificationRequest;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,10 +15,20 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import com.beta.apiservice.kafka.Producer;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -22,14 +37,168 @@ public class NotificationService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
     private final Producer kafkaProducer;
-    private final MessageStorageService messageStorageService;
+    private final NotificationFanoutQueue fanoutQueue;
 
     private static final String NOTIFICATION_KEY_PREFIX = "user:notifications:";
     private static final String STATUS_KEY_PREFIX = "notification:status:";
-    private static final int MAX_NOTIFICATIONS_PER_USER = 100;
-    private static final int NOTIFICATION_TTL_DAYS = 30;
+
+    @Value("${notification.bulk.max-concurrency:64}")
+    private int bulkMaxConcurrency;
+
+    @Value("${notification.bulk.batch-size:500}")
+    private int bulkBatchSize;
+
+    @Value("${notification.bulk.ack-timeout-seconds:30}")
+    private long bulkAckTimeoutSeconds;
+
+    private Semaphore bulkPermits;
+
+    @PostConstruct
+    void init() {
+        bulkPermits = new Semaphore(bulkMaxConcurrency);
+    }
 
     public String sendNotification(NotificationRequest request, String projectId) throws JsonProcessingException {
+        FanoutTask task = buildTask(request, projectId);
+
+        String payload = objectMapper.writeValueAsString(task.notificationData());
+        // Send to Kafka (fire-and-forget)
+        kafkaProducer.sendMessage(partitionKey(task), payload);
+
+        // Inbox messages and delivery tracking are written to Redis by the write-behind fan-out
+        fanoutQueue.enqueue(task);
+
+        log.info("Notification queued to Kafka for project {}: {}", projectId, task.notificationId());
+        return task.notificationId();
+    }
+
+    /**
+     * Send many notifications at once. Items are prepared and handed to Kafka in parallel on
+     * virtual threads, bounded by notification.bulk.max-concurrency across all bulk calls, and
+     * processed in batches so that only one batch of Kafka acknowledgements is outstanding at a time.
+     */
+    public BulkSendResult sendBulkNotifications(List<NotificationRequest> requests, String projectId) {
+        List<BulkItemResult> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += bulkBatchSize) {
+            int to = Math.min(from + bulkBatchSize, requests.size());
+            results.addAll(sendBulkBatch(requests.subList(from, to), from, projectId));
+        }
+
+        BulkSendResult result = new BulkSendResult(results);
+        log.info("Bulk notification request processed for project {}: {} sent, {} failed",
+                projectId, result.sent(), result.failed());
+        return result;
+    }
+
+    /**
+     * Send notifications read incrementally from a newline-delimited JSON stream. Records are
+     * parsed one at a time with the Jackson streaming parser and sent in batches of
+     * notification.bulk.batch-size, so memory use does not depend on the size of the upload.
+     * The results of each batch are passed to {@code onBatch} as soon as the batch completes.
+     *
+     * @throws JsonProcessingException if a record is not valid JSON; batches before it have already been sent
+     */
+    public void sendBulkNotifications(InputStream ndjson, String projectId, Consumer<List<BulkItemResult>> onBatch)
+            throws IOException {
+        List<NotificationRequest> batch = new ArrayList<>(bulkBatchSize);
+        int total = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(ndjson);
+             MappingIterator<NotificationRequest> records = objectMapper.readValues(parser, NotificationRequest.class)) {
+            while (records.hasNextValue()) {
+                batch.add(records.nextValue());
+                if (batch.size() == bulkBatchSize) {
+                    onBatch.accept(sendBulkBatch(batch, total, projectId));
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Records parsed before the malformed one are still sent
+            if (!batch.isEmpty()) {
+                onBatch.accept(sendBulkBatch(batch, total, projectId));
+            }
+            throw e;
+        }
+
+        if (!batch.isEmpty()) {
+            onBatch.accept(sendBulkBatch(batch, total, projectId));
+            total += batch.size();
+        }
+        log.info("Streamed bulk notification request processed for project {}: {} records", projectId, total);
+    }
+
+    private List<BulkItemResult> sendBulkBatch(List<NotificationRequest> batch, int offset, String projectId) {
+        List<Future<PendingSend>> submitted = new ArrayList<>(batch.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (NotificationRequest request : batch) {
+                submitted.add(executor.submit(() -> {
+                    bulkPermits.acquire();
+                    try {
+                        return prepareAndSend(request, projectId);
+                    } finally {
+                        bulkPermits.release();
+                    }
+                }));
+            }
+        }
+
+        // Wait for the Kafka acknowledgements of the whole batch, then queue the Redis fan-out of the accepted items
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(bulkAckTimeoutSeconds);
+        List<BulkItemResult> results = new ArrayList<>(batch.size());
+        List<FanoutTask> accepted = new ArrayList<>(batch.size());
+        for (int i = 0; i < submitted.size(); i++) {
+            int index = offset + i;
+            try {
+                PendingSend pending = submitted.get(i).get();
+                pending.ack().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                accepted.add(pending.task());
+                results.add(BulkItemResult.queued(index, pending.task().notificationId()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(BulkItemResult.failed(index, "Interrupted while sending notification"));
+            } catch (TimeoutException e) {
+                results.add(BulkItemResult.failed(index, "Timed out waiting for Kafka acknowledgement"));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Bulk item {} failed for project {}: {}", index, projectId, cause.getMessage());
+                results.add(BulkItemResult.failed(index, describeFailure(cause)));
+            }
+        }
+
+        accepted.forEach(fanoutQueue::enqueue);
+        return results;
+    }
+
+    private PendingSend prepareAndSend(NotificationRequest request, String projectId) throws JsonProcessingException {
+        if (request == null || request.recipients() == null || request.recipients().isEmpty()) {
+            throw new IllegalArgumentException("recipients are required");
+        }
+        FanoutTask task = buildTask(request, projectId);
+        String payload = objectMapper.writeValueAsString(task.notificationData());
+        return new PendingSend(task, kafkaProducer.sendMessage(partitionKey(task), payload));
+    }
+
+    /**
+     * Kafka key for a notification: its project. Records with the same key land on the same
+     * partition and are delivered in order, so each project's notifications arrive in the order
+     * they were sent. A notification is one record whatever its recipients, so there is no
+     * ordering per recipient beyond that.
+     */
+    static String partitionKey(FanoutTask task) {
+        return task.projectId();
+    }
+
+    private String describeFailure(Throwable cause) {
+        if (cause instanceof JsonProcessingException) {
+            return "Failed to serialize notification";
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return cause.getMessage();
+        }
+        return "Failed to send notification: " + cause.getMessage();
+    }
+
+    private FanoutTask buildTask(NotificationRequest request, String projectId) {
         String notificationId = UUID.randomUUID().toString();
 
         Map<String, Object> notificationData = new HashMap<>();
@@ -46,56 +215,10 @@ public class NotificationService {
         notificationData.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         notificationData.put("status", "PENDING");
 
-        String payload = objectMapper.writeValueAsString(notificationData);
-        // Send to Kafka (fire-and-forget)
-        kafkaProducer.sendMessage(notificationId, payload);
-
-        // Store message for each recipient in Redis for user retrieval
-        for (String recipient : request.recipients()) {
-            try {
-                // Store in message storage for user access
-                messageStorageService.storeMessage(
-                    projectId,
-                    recipient,
-                    request.message(),
-                    request.title(),
-                    request.channel(),
-                    request.metadata()
-                );
-                
-                // Also store notification status for delivery tracking
-                storeNotificationStatus(projectId, recipient, notificationId, notificationData);
-                
-                log.info("Message stored for recipient: {} in project: {}", recipient, projectId);
-            } catch (Exception e) {
-                log.error("Failed to store message for recipient: {} in project: {}", recipient, projectId, e);
-            }
-        }
-
-        log.info("Notification queued to Kafka for project {}: {}", projectId, notificationId);
-        return notificationId;
+        return new FanoutTask(notificationId, projectId, request, notificationData);
     }
 
-    private void storeNotificationStatus(String projectId, String recipient, String notificationId, Map<String, Object> data) {
-        try {
-            // Store individual notification status
-            String statusKey = STATUS_KEY_PREFIX + notificationId;
-            redisTemplate.opsForValue().set(statusKey, data, NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
-
-            // Add to recipient's notification list (recent notifications)
-            String recipientKey = NOTIFICATION_KEY_PREFIX + projectId + ":" + recipient;
-            redisTemplate.opsForList().leftPush(recipientKey, notificationId);
-
-            // Trim list to keep only recent notifications
-            redisTemplate.opsForList().trim(recipientKey, 0, MAX_NOTIFICATIONS_PER_USER - 1);
-
-            // Set expiration for recipient list
-            redisTemplate.expire(recipientKey, NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
-
-        } catch (Exception e) {
-            log.warn("Failed to store notification status in Redis: {}", notificationId, e);
-        }
-    }
+    private record PendingSend(FanoutTask task, CompletableFuture<?> ack) {}
 
     public List<Object> getUserNotifications(String projectId, String recipient, int limit) {
         try {
@@ -0,0 +1,154 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.model.Project;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Node-local cache of API key to {@link Project} lookups used by request authentication.
+ * <p>
+ * Resolved projects are kept for a bounded time and unknown keys are cached negatively for a
+ * shorter one, so repeated lookups of a bad key do not reach Redis. Changes are broadcast on a Redis
+ * channel so other nodes drop their copies. Pub/sub can lose messages, so both TTLs also bound how
+ * long a node can act on stale state: a key registered while this node had it cached as unknown is
+ * accepted at the latest once project.cache.negative-ttl-seconds has passed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectCache implements MessageListener {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String INVALIDATION_CHANNEL = "project:cache:invalidate";
+
+    @Value("${project.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${project.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${project.cache.negative-max-size:100000}")
+    private long negativeMaxSize;
+
+    @Value("${project.cache.negative-ttl-seconds:60}")
+    private long negativeTtlSeconds;
+
+    private Cache<String, Project> projects;
+    private Cache<String, Boolean> unknownKeys;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        projects = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        unknownKeys = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        // Off the startup thread, as subscribing waits for Redis
+        CompletableFuture.runAsync(this::subscribe);
+    }
+
+    /**
+     * Resolve a project by API key, calling {@code loader} only on a cache miss.
+     * A loader that throws leaves the cache untouched, so lookup failures are not cached as unknown keys.
+     */
+    public Project get(String apiKey, Function<String, Project> loader) {
+        Project project = projects.getIfPresent(apiKey);
+        if (project != null) {
+            hits.increment();
+            return project;
+        }
+
+        if (unknownKeys.getIfPresent(apiKey) != null) {
+            negativeHits.increment();
+            return null;
+        }
+
+        misses.increment();
+        project = loader.apply(apiKey);
+        if (project == null) {
+            unknownKeys.put(apiKey, Boolean.TRUE);
+        } else {
+            projects.put(apiKey, project);
+        }
+        return project;
+    }
+
+    /**
+     * Drop any cached state for an API key on every node, e.g. after it was registered or its project changed.
+     */
+    public void invalidate(String apiKey) {
+        evict(apiKey);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, apiKey);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast project cache invalidation", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object apiKey = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (apiKey instanceof String key) {
+            evict(key);
+        }
+    }
+
+    private void evict(String apiKey) {
+        projects.invalidate(apiKey);
+        unknownKeys.invalidate(apiKey);
+    }
+
+    /**
+     * Make sure invalidations are being received. Runs periodically so a subscription that failed
+     * because Redis was down at startup, or that dropped later, is restored.
+     */
+    @Scheduled(initialDelayString = "${project.cache.subscription-check-ms:60000}", fixedDelayString = "${project.cache.subscription-check-ms:60000}")
+    public void subscribe() {
+        try {
+            if (!listenerContainer.isRunning()) {
+                listenerContainer.start();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to subscribe to project cache invalidations", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", projects.estimatedSize());
+        stats.put("negativeSize", unknownKeys.estimatedSize());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("subscribed", listenerContainer.isRunning());
+        return stats;
+    }
+}
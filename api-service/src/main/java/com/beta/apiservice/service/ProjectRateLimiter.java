@@ -0,0 +1,219 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.model.Project;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces {@link Project#getRateLimit()} as requests per window (one minute by default) per project.
+ * <p>
+ * Each project has a token bucket per node that refills continuously at limit / window and holds at
+ * most rate-limit.burst-seconds worth of tokens, so a burst at a window boundary cannot double the
+ * limit and a throttled caller is told to come back once the next token is due rather than at the
+ * end of a window. Requests are admitted with a CAS on the bucket, so the request path never waits
+ * on Redis. A scheduled reconciliation adds the node's admitted count to a per-project Redis counter
+ * shared by all replicas and takes what the other replicas admitted since the last run out of the
+ * local bucket, so the limit holds across replicas. They can overshoot it by at most what they admit
+ * between two reconciliations.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectRateLimiter {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private static final String RATE_LIMIT_KEY_PREFIX = "rate_limit:";
+
+    @Value("${rate-limit.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${rate-limit.burst-seconds:10}")
+    private long burstSeconds;
+
+    // Overridable in tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Try to admit one request for the project.
+     *
+     * @return 0 when admitted, otherwise the number of seconds until the project's next token is due
+     */
+    public long tryAcquire(Project project) {
+        Integer limit = project.getRateLimit();
+        if (limit == null || limit <= 0) {
+            admitted.increment();
+            return 0;
+        }
+
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.computeIfAbsent(project.getId(), id -> new Bucket(capacity(limit), now));
+        long waitMillis = bucket.tryTake(ratePerMilli(limit), capacity(limit), now);
+        if (waitMillis == 0) {
+            admitted.increment();
+            return 0;
+        }
+
+        throttled.increment();
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999));
+    }
+
+    private double ratePerMilli(int limit) {
+        return (double) limit / TimeUnit.SECONDS.toMillis(windowSeconds);
+    }
+
+    private double capacity(int limit) {
+        return Math.max(1, (double) limit * burstSeconds / windowSeconds);
+    }
+
+    /**
+     * Publish locally admitted requests to the shared counters and debit the local buckets with
+     * what other replicas admitted, one pipelined round trip for all projects.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sync-interval-ms:1000}")
+    public void reconcile() {
+        long now = clock.getAsLong();
+        long windowMs = TimeUnit.SECONDS.toMillis(windowSeconds);
+        // A bucket left alone for a window is full again, so it can be dropped once its count is published
+        buckets.entrySet().removeIf(entry -> entry.getValue().idleSince(now) > windowMs && entry.getValue().unsynced.get() == 0);
+
+        List<String> projectIds = new ArrayList<>();
+        List<Bucket> active = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        buckets.forEach((projectId, bucket) -> {
+            projectIds.add(projectId);
+            active.add(bucket);
+            deltas.add(bucket.unsynced.getAndSet(0));
+        });
+        if (active.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (int i = 0; i < projectIds.size(); i++) {
+                        String key = RATE_LIMIT_KEY_PREFIX + projectIds.get(i);
+                        ops.opsForValue().increment(key, deltas.get(i));
+                        ops.expire(key, 2 * windowMs, TimeUnit.MILLISECONDS);
+                    }
+                    return null;
+                }
+            });
+
+            for (int i = 0; i < active.size(); i++) {
+                if (results.get(2 * i) instanceof Number globalCount) {
+                    active.get(i).sync(globalCount.longValue(), deltas.get(i), now);
+                }
+            }
+        } catch (Exception e) {
+            // Keep admitting from the local buckets and push the counts again on the next run
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).unsynced.addAndGet(deltas.get(i));
+            }
+            log.warn("Failed to reconcile rate limits for {} projects", active.size(), e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("admitted", admitted.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("trackedProjects", buckets.size());
+        return stats;
+    }
+
+    private static final class Bucket {
+
+        private record State(double tokens, long refilledAt) {}
+
+        private final AtomicReference<State> state;
+        private final AtomicLong unsynced = new AtomicLong();
+        private volatile double ratePerMilli;
+        private volatile double capacity;
+        // The shared counter as of the last reconciliation, or -1 before the first
+        private long lastGlobalCount = -1;
+
+        private Bucket(double capacity, long now) {
+            this.capacity = capacity;
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        private State refilled(State current, long now) {
+            long elapsed = Math.max(0, now - current.refilledAt());
+            return new State(Math.min(capacity, current.tokens() + elapsed * ratePerMilli), Math.max(now, current.refilledAt()));
+        }
+
+        /**
+         * Take one token, or return how many milliseconds until one is available.
+         */
+        private long tryTake(double currentRate, double currentCapacity, long now) {
+            ratePerMilli = currentRate;
+            capacity = currentCapacity;
+            while (true) {
+                State current = state.get();
+                State refilled = refilled(current, now);
+                if (refilled.tokens() < 1) {
+                    return Math.max(1, (long) Math.ceil((1 - refilled.tokens()) / currentRate));
+                }
+                if (state.compareAndSet(current, new State(refilled.tokens() - 1, refilled.refilledAt()))) {
+                    unsynced.incrementAndGet();
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Remove the requests other replicas admitted since the last reconciliation. The bucket may
+         * go into debt, down to minus its capacity, so a node that was over-admitted waits it off.
+         */
+        private void sync(long globalCount, long ownDelta, long now) {
+            long previous = lastGlobalCount;
+            lastGlobalCount = globalCount;
+            // First run, or the counter expired while the project was idle: nothing to debit yet
+            if (previous < 0 || globalCount < previous) {
+                return;
+            }
+            long others = globalCount - previous - ownDelta;
+            if (others <= 0) {
+                return;
+            }
+            while (true) {
+                State current = state.get();
+                State refilled = refilled(current, now);
+                State debited = new State(Math.max(-capacity, refilled.tokens() - others), refilled.refilledAt());
+                if (state.compareAndSet(current, debited)) {
+                    return;
+                }
+            }
+        }
+
+        private long idleSince(long now) {
+            return now - state.get().refilledAt();
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class ProjectService {
     
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
+    private final ProjectCache projectCache;
     
     private static final String PROJECT_KEY_PREFIX = "project:";
     private static final String API_KEY_PREFIX = "api_key:";
@@ -53,6 +54,9 @@ public class ProjectService {
         String apiKeyKey = API_KEY_PREFIX + apiKey;
         redisTemplate.opsForValue().set(apiKeyKey, projectId, PROJECT_TTL_DAYS, TimeUnit.DAYS);
         
+        // Let every node's project cache know about the new key
+        projectCache.invalidate(apiKey);
+        
         log.info("Project registered: {}", projectId);
         
         return new ProjectResponse(
@@ -68,27 +72,35 @@ public class ProjectService {
     
     public Project getProjectByApiKey(String apiKey) {
         try {
-            String apiKeyKey = API_KEY_PREFIX + apiKey;
-            String projectId = (String) redisTemplate.opsForValue().get(apiKeyKey);
-            
-            if (projectId == null) {
-                return null;
-            }
-            
-            String projectKey = PROJECT_KEY_PREFIX + projectId;
-            String projectJson = (String) redisTemplate.opsForValue().get(projectKey);
-            
-            if (projectJson == null) {
-                return null;
-            }
-            
-            return objectMapper.readValue(projectJson, Project.class);
+            return projectCache.get(apiKey, this::loadProjectByApiKey);
         } catch (Exception e) {
             log.error("Failed to get project by API key", e);
             return null;
         }
     }
     
+    private Project loadProjectByApiKey(String apiKey) {
+        String apiKeyKey = API_KEY_PREFIX + apiKey;
+        String projectId = (String) redisTemplate.opsForValue().get(apiKeyKey);
+        
+        if (projectId == null) {
+            return null;
+        }
+        
+        String projectKey = PROJECT_KEY_PREFIX + projectId;
+        String projectJson = (String) redisTemplate.opsForValue().get(projectKey);
+        
+        if (projectJson == null) {
+            return null;
+        }
+        
+        try {
+            return objectMapper.readValue(projectJson, Project.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read project: " + projectId, e);
+        }
+    }
+    
     public Project getProjectById(String projectId) {
         try {
             String projectKey = PROJECT_KEY_PREFIX + projectId;
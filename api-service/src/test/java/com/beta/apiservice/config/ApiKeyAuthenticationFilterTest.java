@@ -0,0 +1,144 @@
+package com.beta.apiservice.config;
+
+import com.beta.apiservice.controller.MessageController;
+import com.beta.apiservice.controller.MetricsController;
+import com.beta.apiservice.model.Project;
+import com.beta.apiservice.service.MessageStorageService;
+import com.beta.apiservice.service.NotificationFanoutQueue;
+import com.beta.apiservice.service.ProjectCache;
+import com.beta.apiservice.service.ProjectRateLimiter;
+import com.beta.apiservice.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyAuthenticationFilterTest {
+
+    private static final String API_KEY = "sk_live_test";
+
+    @Mock
+    private ProjectService projectService;
+
+    @Mock
+    private ProjectRateLimiter rateLimiter;
+
+    @Mock
+    private NotificationFanoutQueue fanoutQueue;
+
+    @Mock
+    private ProjectCache projectCache;
+
+    @Mock
+    private MessageStorageService messageStorageService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new MetricsController(fanoutQueue, projectCache, rateLimiter),
+                        new MessageController(messageStorageService))
+                .addFilters(new ApiKeyAuthenticationFilter(projectService, rateLimiter))
+                .build();
+    }
+
+    private Project activeProject() {
+        Project project = new Project();
+        project.setId("project1");
+        project.setStatus(Project.ProjectStatus.ACTIVE);
+        when(projectService.getProjectByApiKey(API_KEY)).thenReturn(project);
+        return project;
+    }
+
+    @Test
+    void metrics_withoutApiKey_isRejected() throws Exception {
+        mockMvc.perform(get("/api/metrics"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(fanoutQueue, projectCache);
+    }
+
+    @Test
+    void metrics_withApiKey_isServed() throws Exception {
+        // Given
+        activeProject();
+        when(fanoutQueue.getStats()).thenReturn(Map.of("depth", 0));
+
+        // When / Then
+        mockMvc.perform(get("/api/metrics").header("X-API-Key", API_KEY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fanoutQueue.depth").value(0));
+    }
+
+    @Test
+    void deleteMessages_withoutApiKey_isRejected() throws Exception {
+        mockMvc.perform(post("/api/messages/user/user1/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"messageIds\":[\"m1\"]}"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(messageStorageService);
+    }
+
+    @Test
+    void deleteMessages_withApiKey_deletesInTheKeysProject() throws Exception {
+        // Given
+        activeProject();
+        when(messageStorageService.deleteMessages("project1", "user1", List.of("m1", "m2"))).thenReturn(2);
+
+        // When / Then
+        mockMvc.perform(post("/api/messages/user/user1/delete")
+                        .header("X-API-Key", API_KEY)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"messageIds\":[\"m1\",\"m2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    void markAllAsRead_withoutApiKey_isRejected() throws Exception {
+        mockMvc.perform(put("/api/messages/user/user1/read-all"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(messageStorageService);
+    }
+
+    @Test
+    void markAllAsRead_withApiKey_marksTheKeysProjectInbox() throws Exception {
+        // Given
+        activeProject();
+        when(messageStorageService.markAllAsRead("project1", "user1")).thenReturn(5000L);
+
+        // When / Then
+        mockMvc.perform(put("/api/messages/user/user1/read-all").header("X-API-Key", API_KEY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readUntil").value(5000));
+    }
+
+    @Test
+    void getMessage_isReadWithoutApiKey() throws Exception {
+        // Given
+        // Reads by message ID stay open to inbox clients
+        when(messageStorageService.getMessage("m1")).thenReturn(Map.of("id", "m1"));
+
+        // When / Then
+        mockMvc.perform(get("/api/messages/m1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("m1"));
+        verifyNoInteractions(projectService);
+    }
+}
@@ -0,0 +1,150 @@
+package com.beta.apiservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class MessageCodecTest {
+
+    private final MessageCodec codec = new MessageCodec(new ObjectMapper());
+
+    @Test
+    void decode_joinsRecipientEntryWithSharedContent() {
+        // Given
+        long createdAtMillis = 1_700_000_000_000L;
+        Map<String, String> content = codec.encodeContent("project1", "Hello", "Title", "webhook",
+            Map.of("source", "test"), createdAtMillis);
+        Map<String, String> entry = codec.encodeRecipient("content-1", "user1@example.com");
+
+        // When
+        Map<String, Object> message = codec.decode("msg-1", entry, content);
+
+        // Then
+        assertEquals("msg-1", message.get("id"));
+        assertEquals("project1", message.get("projectId"));
+        assertEquals("user1@example.com", message.get("recipient"));
+        assertEquals("Hello", message.get("message"));
+        assertEquals("Title", message.get("title"));
+        assertEquals("webhook", message.get("channel"));
+        assertEquals(Map.of("source", "test"), message.get("metadata"));
+        assertEquals(LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault())
+            .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), message.get("createdAt"));
+        assertEquals("STORED", message.get("status"));
+        assertEquals(false, message.get("read"));
+        assertFalse(message.containsKey("readAt"));
+        assertEquals("content-1", codec.contentRef(entry));
+    }
+
+    @Test
+    void decode_missingSharedContent_returnsNull() {
+        assertNull(codec.decode("msg-1", codec.encodeRecipient("content-1", "user1"), Map.of()));
+    }
+
+    @Test
+    void decode_readAtField_marksMessageRead() {
+        // Given
+        Map<String, String> entry = new HashMap<>(codec.encodeRecipient("content-1", "user1"));
+        entry.put(MessageCodec.READ_AT, "2000");
+
+        // When
+        Map<String, Object> message = codec.decode("msg-1", entry,
+            codec.encodeContent("project1", "Hello", null, null, null, 1000L));
+
+        // Then
+        assertEquals(true, message.get("read"));
+        assertNotNull(message.get("readAt"));
+        assertEquals(Map.of(), message.get("metadata"));
+    }
+
+    @Test
+    void decode_missingHash_returnsNull() {
+        assertNull(codec.decode("msg-1", Map.of()));
+    }
+
+    @Test
+    void decodeLegacy_readsGenericJacksonJson() {
+        // Given
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("id", "msg-1");
+        legacy.put("read", true);
+        legacy.put("metadata", new HashMap<>(Map.of("source", "test")));
+        String json = new String(new GenericJackson2JsonRedisSerializer().serialize(legacy), StandardCharsets.UTF_8);
+
+        // When
+        Map<String, Object> message = codec.decodeLegacy(json);
+
+        // Then
+        assertEquals("msg-1", message.get("id"));
+        assertEquals(true, message.get("read"));
+        assertEquals("test", ((Map<?, ?>) message.get("metadata")).get("source"));
+    }
+
+    /**
+     * Compares the stored bytes for a fan-out to many recipients: key plus value for the legacy JSON
+     * string, key plus fields and values for the hashes, with the listpack header and 2 bytes of
+     * per-entry overhead Redis uses for small hashes. The legacy form repeats the content for every
+     * recipient; the compact form stores it once and gives each recipient a reference entry.
+     */
+    @Test
+    void fanOutBytes_sharedContentIsUnderAQuarterOfLegacy() {
+        // Given
+        int recipients = 50_000;
+        String messageId = UUID.randomUUID().toString();
+        String contentId = UUID.randomUUID().toString();
+        String projectId = "proj_3f9a1c2b7d4e";
+        String recipient = "jane.doe@example.com";
+        String text = "Your order #48213 has shipped and should arrive on Thursday. " + "Track it in the app. ".repeat(20);
+        String title = "Order shipped";
+        Map<String, Object> metadata = Map.of("orderId", "48213", "priority", "normal");
+        long createdAtMillis = System.currentTimeMillis();
+
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("id", messageId);
+        legacy.put("projectId", projectId);
+        legacy.put("recipient", recipient);
+        legacy.put("message", text);
+        legacy.put("title", title);
+        legacy.put("channel", "webhook");
+        legacy.put("metadata", new HashMap<>(metadata));
+        legacy.put("createdAt", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        legacy.put("status", "STORED");
+        legacy.put("read", false);
+
+        // When
+        long legacyBytes = (long) recipients * (("message:" + messageId).length()
+            + new GenericJackson2JsonRedisSerializer().serialize(legacy).length);
+        int contentBytes = hashBytes("notification:content:" + contentId,
+            codec.encodeContent(projectId, text, title, "webhook", metadata, createdAtMillis));
+        int entryBytes = hashBytes("msg:" + messageId, codec.encodeRecipient(contentId, recipient));
+        long sharedBytes = contentBytes + (long) recipients * entryBytes;
+        long contentCopies = (long) recipients * contentBytes;
+
+        // Then
+        log.debug("Fan-out to {} recipients: legacy JSON={} bytes, shared content={} bytes "
+                + "(content {} bytes once, {} bytes per recipient)",
+            recipients, legacyBytes, sharedBytes, contentBytes, entryBytes);
+        assertTrue(sharedBytes * 100 < legacyBytes * 25,
+            "shared content should be under 25% of legacy, was " + (sharedBytes * 100 / legacyBytes) + "%");
+        assertTrue(contentBytes * 1000L < contentCopies, "content should be stored once, not per recipient");
+    }
+
+    private static int hashBytes(String key, Map<String, String> fields) {
+        int listpackHeader = 7;
+        return key.length() + listpackHeader + fields.entrySet().stream()
+            .mapToInt(field -> field.getKey().getBytes(StandardCharsets.UTF_8).length + 2
+                + field.getValue().getBytes(StandardCharsets.UTF_8).length + 2)
+            .sum();
+    }
+}
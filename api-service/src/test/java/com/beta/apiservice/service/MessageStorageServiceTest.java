@@ -1,19 +1,44 @@
 package com.beta.apiservice.service;
 
+import com.beta.apiservice.dto.InboxPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,21 +56,94 @@ class MessageStorageServiceTest {
     @Mock
     private ListOperations<String, Object> listOps;
 
+    @Mock
+    private ZSetOperations<String, Object> zSetOps;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+
+    @Mock
+    private ValueOperations<String, String> stringValueOps;
+
+    @Mock
+    private ZSetOperations<String, String> stringZSetOps;
+
     private MessageStorageService messageStorageService;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        messageStorageService = new MessageStorageService(redisTemplate, objectMapper);
+        messageStorageService = new MessageStorageService(redisTemplate, stringRedisTemplate, objectMapper, new MessageCodec(objectMapper));
         
         // Set default values for configuration
         ReflectionTestUtils.setField(messageStorageService, "notificationTtlDays", 30);
         ReflectionTestUtils.setField(messageStorageService, "maxNotificationsPerUser", 100);
+        ReflectionTestUtils.setField(messageStorageService, "pipelineBatchSize", 500);
+        ReflectionTestUtils.setField(messageStorageService, "unreadReconcileBatchSize", 100);
+        ReflectionTestUtils.setField(messageStorageService, "projectIndexMaxPerDay", 10000);
+        ReflectionTestUtils.setField(messageStorageService, "dailyStatsDays", 7);
+        ReflectionTestUtils.setField(messageStorageService, "encoding", "hash");
         
         // Setup mocks
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(redisTemplate.opsForList()).thenReturn(listOps);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOps);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        // Run pipelined callbacks against the same mocks so individual commands can be verified
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+        lenient().when(stringRedisTemplate.opsForHash()).thenReturn(hashOps);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(stringValueOps);
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(stringZSetOps);
+        lenient().when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(stringRedisTemplate);
+            return List.of();
+        });
+    }
+
+    // Compact message hashes as HGETALL returns them, from alternating field and value arguments
+    private static Map<String, String> hash(String... fieldsAndValues) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < fieldsAndValues.length; i += 2) {
+            fields.put(fieldsAndValues[i], fieldsAndValues[i + 1]);
+        }
+        return fields;
+    }
+
+    // A message as the previous encoding stored it
+    private static String legacyJson(Map<String, Object> message) {
+        return new String(new GenericJackson2JsonRedisSerializer().serialize(message), StandardCharsets.UTF_8);
+    }
+
+    private void givenCompactMessages(Map<?, ?>... hashes) {
+        givenPipelinedReads(Arrays.asList((Object[]) hashes));
+    }
+
+    // Results of consecutive read pipelines: recipient entries first, then shared content and legacy values
+    private void givenPipelinedReads(List<?>... rounds) {
+        var stubbing = when(stringRedisTemplate.executePipelined(any(SessionCallback.class)));
+        for (List<?> round : rounds) {
+            stubbing = stubbing.thenAnswer(invocation -> {
+                invocation.<SessionCallback<?>>getArgument(0).execute(stringRedisTemplate);
+                return new ArrayList<>(round);
+            });
+        }
+    }
+
+    // Sorted-set entries as Redis returns them, from alternating member and score arguments
+    private static Set<ZSetOperations.TypedTuple<Object>> inbox(Object... membersAndScores) {
+        Set<ZSetOperations.TypedTuple<Object>> entries = new LinkedHashSet<>();
+        for (int i = 0; i < membersAndScores.length; i += 2) {
+            entries.add(new DefaultTypedTuple<>(membersAndScores[i], ((Number) membersAndScores[i + 1]).doubleValue()));
+        }
+        return entries;
     }
 
     @Test
@@ -66,11 +164,166 @@ class MessageStorageServiceTest {
         assertNotNull(messageId);
         assertFalse(messageId.isEmpty());
         
-        // Verify Redis operations were called
-        verify(valueOps, times(1)).set(anyString(), any(Map.class), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
-        verify(listOps, times(2)).leftPush(anyString(), anyString());
-        verify(listOps, times(2)).trim(anyString(), eq(0L), eq(99L));
+        // Verify Redis operations were called in a single pipeline
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(hashOps, times(1)).putAll(eq("msg:" + messageId), anyMap());
+        verify(hashOps, times(1)).putAll(startsWith("notification:content:"), anyMap());
+        verify(stringRedisTemplate, times(1)).expire("msg:" + messageId, 30L, java.util.concurrent.TimeUnit.DAYS);
+        verify(valueOps, never()).set(anyString(), any(Map.class), anyLong(), any());
+        verify(zSetOps, times(1)).add(eq("user:inbox:project1:user1@example.com"), eq(messageId), anyDouble());
+        verify(zSetOps, times(1)).add(startsWith("project:index:project1:"), anySet());
+        verify(hashOps, times(1)).increment("project:stats:project1", "total", 1L);
+        verify(hashOps, times(1)).increment("project:stats:project1", "channel:webhook", 1L);
+        verifyNoInteractions(listOps);
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class),
+            eq(List.of("user:inbox:project1:user1@example.com", "user:unread:project1:user1@example.com",
+                "user:read-until:project1:user1@example.com")),
+            eq("100"), anyString(), eq("msg:"), eq("ra"), eq("message:"));
+        verify(zSetOps, never()).add(eq("unread:reconcile"), anyString(), anyDouble());
         verify(redisTemplate, times(2)).expire(anyString(), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
+        verify(redisTemplate, times(1)).expireAt(startsWith("project:index:project1:"), any(java.util.Date.class));
+        verify(valueOps, times(1)).increment("user:unread:project1:user1@example.com");
+        verify(zSetOps, times(1)).addIfAbsent(eq("unread:reconcile"), eq("project1:user1@example.com"), anyDouble());
+    }
+
+    @Test
+    void storeMessage_jsonEncoding_writesLegacyValue() {
+        // Given
+        ReflectionTestUtils.setField(messageStorageService, "encoding", "json");
+
+        // When
+        String messageId = messageStorageService.storeMessage("project1", "user1@example.com", "Test message", "Test title", "webhook", null);
+
+        // Then
+        verify(valueOps, times(1)).set(eq("message:" + messageId), any(Map.class), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
+        verify(hashOps, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    void storeMessages_trimmedInboxes_areNotRecountedWhenTheScriptKeptTheirCounters() {
+        // Given
+        // The trim script adjusted every counter itself
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any(), any()))
+            .thenReturn(List.of());
+
+        // When
+        messageStorageService.storeMessages("project1", List.of("user1@example.com", "user2@example.com"),
+            "Test message", "Test title", "webhook", null);
+
+        // Then
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any(), any(), any());
+        verify(zSetOps, never()).add(eq("unread:reconcile"), anyString(), anyDouble());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void storeMessages_inboxesTheScriptCannotCount_queueUnreadReconcileInOnePipeline() {
+        // Given
+        // The script reports the second and third inboxes by 1-based position, e.g. a mark-all-read raced the store
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any(), any()))
+            .thenReturn(List.of(2L, 3L));
+
+        // When
+        messageStorageService.storeMessages("project1", List.of("user1@example.com", "user2@example.com", "user3@example.com"),
+            "Test message", "Test title", "webhook", null);
+
+        // Then
+        verify(zSetOps, never()).add(eq("unread:reconcile"), eq("project1:user1@example.com"), anyDouble());
+        verify(zSetOps, times(1)).add(eq("unread:reconcile"), eq("project1:user2@example.com"), anyDouble());
+        verify(zSetOps, times(1)).add(eq("unread:reconcile"), eq("project1:user3@example.com"), anyDouble());
+        // The store pipeline and one pipeline for the queued recounts
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+    }
+
+    /**
+     * Store a fan-out through real templates, configured as in RedisConfig, over a fake connection
+     * and count the round trips on both: every command sent outside a pipeline, and every pipeline.
+     */
+    private int storeRoundTrips(int recipientCount) {
+        AtomicInteger roundTrips = new AtomicInteger();
+        AtomicBoolean pipelined = new AtomicBoolean();
+        Answer<Object> command = invocation -> {
+            if (invocation.getMethod().isDefault()) {
+                return invocation.callRealMethod();
+            }
+            if (!pipelined.get()) {
+                roundTrips.incrementAndGet();
+            }
+            return RETURNS_DEFAULTS.answer(invocation);
+        };
+        Map<Class<?>, Object> commandGroups = new ConcurrentHashMap<>();
+        RedisConnection connection = mock(RedisConnection.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "openPipeline" -> {
+                pipelined.set(true);
+                yield null;
+            }
+            case "closePipeline" -> {
+                pipelined.set(false);
+                roundTrips.incrementAndGet();
+                yield List.of();
+            }
+            case "isPipelined" -> pipelined.get();
+            case "isQueueing", "isClosed" -> false;
+            case "close" -> null;
+            default -> invocation.getMethod().getName().endsWith("Commands")
+                ? commandGroups.computeIfAbsent(invocation.getMethod().getReturnType(), type -> mock(type, command))
+                : command.answer(invocation);
+        });
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        MessageStorageService service = new MessageStorageService(template, new StringRedisTemplate(connectionFactory),
+            objectMapper, new MessageCodec(objectMapper));
+        for (String field : List.of("notificationTtlDays", "maxNotificationsPerUser", "pipelineBatchSize",
+                "unreadReconcileBatchSize", "projectIndexMaxPerDay", "dailyStatsDays", "encoding")) {
+            ReflectionTestUtils.setField(service, field, ReflectionTestUtils.getField(messageStorageService, field));
+        }
+        
+        List<String> recipients = IntStream.range(0, recipientCount)
+            .mapToObj(i -> "user" + i + "@example.com")
+            .toList();
+        assertEquals(recipientCount, service.storeMessages("project1", recipients, "Test message", "Test title", "webhook", null).size());
+        return roundTrips.get();
+    }
+
+    @Test
+    void storeMessages_roundTripsOnBothTemplatesGrowWithBatchesNotRecipients() {
+        // When / Then
+        // Per batch of 500: the store pipeline and the trim script, whose counters need no recount here
+        assertEquals(2, storeRoundTrips(1));
+        assertEquals(2, storeRoundTrips(500));
+        assertEquals(4, storeRoundTrips(501));
+        assertEquals(20, storeRoundTrips(5000));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 500, 501, 5000})
+    void storeMessages_writesContentOnceAndOnePipelinePerBatch(int recipientCount) {
+        // Given
+        List<String> recipients = IntStream.range(0, recipientCount)
+            .mapToObj(i -> "user" + i + "@example.com")
+            .toList();
+
+        // When
+        List<String> messageIds = messageStorageService.storeMessages("project1", recipients, "Test message", "Test title", "webhook", null);
+
+        // Then
+        int expectedRoundTrips = (recipientCount + 499) / 500;
+        assertEquals(recipientCount, messageIds.size());
+        verify(redisTemplate, times(expectedRoundTrips)).executePipelined(any(SessionCallback.class));
+        // Content is written once per fan-out, each recipient only gets a reference entry
+        verify(hashOps, times(1)).putAll(startsWith("notification:content:"), anyMap());
+        verify(hashOps, times(recipientCount)).putAll(startsWith("msg:"), anyMap());
+        verify(zSetOps, times(expectedRoundTrips)).add(startsWith("project:index:project1:"), anySet());
+        verify(zSetOps, times(expectedRoundTrips)).removeRange(startsWith("project:index:project1:"), eq(0L), eq(-10001L));
+        verify(hashOps, times(expectedRoundTrips)).increment(eq("project:stats:project1"), eq("total"), anyLong());
     }
 
     @Test
@@ -80,14 +333,9 @@ class MessageStorageServiceTest {
         String recipient = "user1@example.com";
         String messageId = "msg-123";
         
-        Map<String, Object> messageData = new HashMap<>();
-        messageData.put("id", messageId);
-        messageData.put("message", "Test message");
-        
-        when(listOps.range(anyString(), eq(0L), eq(9L)))
-            .thenReturn(List.of(messageId));
-        when(valueOps.get(anyString()))
-            .thenReturn(messageData);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(Arrays.asList(inbox(messageId, 1000), null, 1, false));
+        givenCompactMessages(hash("p", projectId, "r", recipient, "m", "Test message", "ca", "1000"));
 
         // When
         List<Map<String, Object>> messages = messageStorageService.getUserMessages(projectId, recipient, 10);
@@ -96,6 +344,131 @@ class MessageStorageServiceTest {
         assertNotNull(messages);
         assertEquals(1, messages.size());
         assertEquals(messageId, messages.get(0).get("id"));
+        assertEquals("Test message", messages.get(0).get("message"));
+        assertEquals(false, messages.get(0).get("read"));
+        verifyNoInteractions(stringValueOps);
+    }
+
+    @Test
+    void getUserMessages_sharedContent_isFetchedOncePerNotification() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(Arrays.asList(inbox("msg-2", 2000, "msg-1", 1000), null, 1, false));
+        givenPipelinedReads(
+            List.of(hash("cr", "content-1", "r", "user1@example.com"),
+                hash("cr", "content-1", "r", "user1@example.com", "ra", "1500")),
+            List.of(hash("p", "project1", "m", "Shared message", "ca", "1000")));
+
+        // When
+        List<Map<String, Object>> messages = messageStorageService.getUserMessages("project1", "user1@example.com", 10);
+
+        // Then
+        assertEquals(2, messages.size());
+        assertEquals("msg-2", messages.get(0).get("id"));
+        assertEquals("Shared message", messages.get(0).get("message"));
+        assertEquals("user1@example.com", messages.get(0).get("recipient"));
+        assertEquals(false, messages.get(0).get("read"));
+        assertEquals(true, messages.get(1).get("read"));
+        verify(hashOps, times(1)).entries("notification:content:content-1");
+        verifyNoInteractions(stringValueOps);
+    }
+
+    @Test
+    void getInbox_fetchesPageAndUnreadCountInConstantRoundTrips() {
+        // Given
+        Object[] entries = IntStream.range(0, 101).boxed()
+            .flatMap(i -> java.util.stream.Stream.of("msg-" + i, 2000 - i))
+            .toArray();
+        // msg-42 is not a compact hash and has also expired from the legacy keys
+        Map<?, ?>[] hashes = IntStream.range(0, 100)
+            .mapToObj(i -> i == 42 ? Map.of() : hash("m", "Message " + i, "ca", "1000"))
+            .toArray(Map[]::new);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(inbox(entries), null, 7, false));
+        givenPipelinedReads(Arrays.asList((Object[]) hashes), Arrays.asList((Object) null));
+
+        // When
+        InboxPage inbox = messageStorageService.getInbox("project1", "user1@example.com", 100, null, null);
+
+        // Then
+        assertEquals(99, inbox.messages().size());
+        assertEquals("msg-43", inbox.messages().get(42).get("id"));
+        assertEquals(7, inbox.unreadCount());
+        assertEquals(new InboxCursor(1901, "msg-99").encode(), inbox.nextCursor());
+        assertEquals(new InboxCursor(2000, "msg-0").encode(), inbox.syncCursor());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(stringRedisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(valueOps, never()).get(anyString());
+    }
+
+    @Test
+    void getInbox_beforeCursor_skipsEntriesAtOrAfterCursorWithinSameMillisecond() {
+        // Given
+        String before = new InboxCursor(1000, "msg-b").encode();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(
+            inbox("msg-c", 1000, "msg-b", 1000, "msg-a", 1000),
+            inbox("msg-old", 900),
+            null, 3, false));
+        givenCompactMessages(hash("ca", "1000"), hash("ca", "900"));
+
+        // When
+        InboxPage page = messageStorageService.getInbox("project1", "user1@example.com", 2, before, null);
+
+        // Then
+        assertEquals(List.of("msg-a", "msg-old"), page.messages().stream().map(m -> m.get("id")).toList());
+        assertNull(page.nextCursor());
+        assertNull(page.syncCursor());
+    }
+
+    @Test
+    void getInbox_afterCursor_returnsOnlyNewerMessagesOldestFirst() {
+        // Given
+        String after = new InboxCursor(1000, "msg-a").encode();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(
+            inbox("msg-a", 1000, "msg-b", 1000),
+            inbox("msg-c", 1100, "msg-d", 1200),
+            null, 0, false));
+        givenCompactMessages(hash("ca", "1000"), hash("ca", "1100"));
+
+        // When
+        InboxPage page = messageStorageService.getInbox("project1", "user1@example.com", 2, null, after);
+
+        // Then
+        assertEquals(List.of("msg-b", "msg-c"), page.messages().stream().map(m -> m.get("id")).toList());
+        assertEquals(new InboxCursor(1100, "msg-c").encode(), page.nextCursor());
+        assertEquals(new InboxCursor(1100, "msg-c").encode(), page.syncCursor());
+    }
+
+    @Test
+    void getInbox_invalidCursor_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> messageStorageService.getInbox("project1", "user1@example.com", 10, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class,
+            () -> messageStorageService.getInbox("project1", "user1@example.com", 10, "a", "b"));
+    }
+
+    @Test
+    void getInbox_legacyListInbox_isMigratedToSortedSet() {
+        // Given
+        Map<String, Object> message = new HashMap<>();
+        message.put("id", "msg-1");
+        message.put("createdAt", "2026-01-01T10:00:00");
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(Arrays.asList(inbox(), null, 1, true))
+            .thenAnswer(invocation -> {
+                invocation.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+                return List.of();
+            })
+            .thenReturn(Arrays.asList(inbox("msg-1", 1000), null, 1, false));
+        when(listOps.range("user:messages:project1:user1@example.com", 0L, -1L)).thenReturn(List.of("msg-1"));
+        givenPipelinedReads(Arrays.asList((Object) null), List.of(legacyJson(message)));
+
+        // When
+        InboxPage page = messageStorageService.getInbox("project1", "user1@example.com", 10, null, null);
+
+        // Then
+        assertEquals(1, page.messages().size());
+        verify(zSetOps, times(1)).add(eq("user:inbox:project1:user1@example.com"), eq("msg-1"), anyDouble());
+        verify(redisTemplate, times(1)).delete("user:messages:project1:user1@example.com");
     }
 
     @Test
@@ -104,8 +477,8 @@ class MessageStorageServiceTest {
         String projectId = "project1";
         String recipient = "user1@example.com";
         
-        when(listOps.range(anyString(), eq(0L), eq(9L)))
-            .thenReturn(List.of());
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(Arrays.asList(inbox(), null, 0, false));
 
         // When
         List<Map<String, Object>> messages = messageStorageService.getUserMessages(projectId, recipient, 10);
@@ -123,21 +496,160 @@ class MessageStorageServiceTest {
         messageData.put("id", messageId);
         messageData.put("read", false);
         
-        when(valueOps.get(anyString())).thenReturn(messageData);
+        when(stringValueOps.get("message:msg-123")).thenReturn(legacyJson(messageData));
 
         // When
         boolean result = messageStorageService.markMessageAsRead(messageId);
 
         // Then
         assertTrue(result);
-        verify(valueOps, times(1)).set(anyString(), any(Map.class), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
+        verify(valueOps, times(1)).set(eq("message:msg-123"), any(Map.class), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
+    }
+
+    @Test
+    void markMessageAsRead_flagsEntryWithOneAtomicScriptCall() {
+        // Given
+        when(hashOps.entries("msg:msg-123")).thenReturn(
+            Map.of("p", "project1", "r", "user1@example.com", "ca", "1000"),
+            Map.of("p", "project1", "r", "user1@example.com", "ca", "1000", "ra", "2000"));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(1L);
+
+        // When
+        boolean first = messageStorageService.markMessageAsRead("msg-123");
+        boolean second = messageStorageService.markMessageAsRead("msg-123");
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class),
+            eq(List.of("msg:msg-123", "user:unread:project1:user1@example.com",
+                "user:read-until:project1:user1@example.com")),
+            eq("ra"), anyString(), eq("1000"));
+        verify(hashOps, never()).put(anyString(), any(), any());
+        verifyNoInteractions(valueOps);
+        verifyNoInteractions(zSetOps);
+    }
+
+    @Test
+    void markMessageAsRead_counterDropsBelowZero_queuedInboxIsReconciled() {
+        // Given
+        when(hashOps.entries("msg:msg-123")).thenReturn(Map.of("p", "project1", "r", "user1@example.com", "ca", "1000"));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(2L);
+        messageStorageService.markMessageAsRead("msg-123");
+        ArgumentCaptor<Object> queued = ArgumentCaptor.forClass(Object.class);
+        verify(zSetOps).add(eq("unread:reconcile"), queued.capture(), anyDouble());
+        // The member as the reconcile run reads it back through the JSON serializer of redisTemplate
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        Object member = serializer.deserialize(serializer.serialize(queued.getValue()));
+        when(zSetOps.rangeByScore(eq("unread:reconcile"), eq(0.0), anyDouble(), eq(0L), eq(100L)))
+            .thenReturn(Set.of(member));
+        when(zSetOps.reverseRangeWithScores("user:inbox:project1:user1@example.com", 0L, 99L))
+            .thenReturn(inbox());
+
+        // When
+        messageStorageService.reconcileUnreadCounts();
+
+        // Then
+        verify(redisTemplate, times(1)).delete("user:unread:project1:user1@example.com");
+        verify(zSetOps, times(1)).remove("unread:reconcile", "project1:user1@example.com");
+    }
+
+    @Test
+    void markMessageAsRead_entryExpiredBeforeUpdate_returnsFalse() {
+        // Given
+        when(hashOps.entries("msg:msg-123")).thenReturn(Map.of("p", "project1", "r", "user1@example.com", "ca", "1000"));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(-1L);
+
+        // When / Then
+        assertFalse(messageStorageService.markMessageAsRead("msg-123"));
+    }
+
+    @Test
+    void markAllAsRead_movesWatermarkAndResetsCounterInOneCall() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(5000L);
+
+        // When
+        long readUntil = messageStorageService.markAllAsRead("project1", "user1@example.com");
+
+        // Then
+        assertEquals(5000L, readUntil);
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class),
+            eq(List.of("user:read-until:project1:user1@example.com", "user:unread:project1:user1@example.com")),
+            anyString(), eq(String.valueOf(30L * 24 * 60 * 60 * 1000)));
+        verifyNoInteractions(zSetOps, hashOps);
+    }
+
+    @Test
+    void getInbox_messagesAtOrBeforeWatermark_areReportedRead() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(Arrays.asList(inbox("msg-2", 2000, "msg-1", 1000), 1500L, 1, false));
+        givenCompactMessages(hash("ca", "2000"), hash("ca", "1000"));
+
+        // When
+        List<Map<String, Object>> messages = messageStorageService.getUserMessages("project1", "user1@example.com", 10);
+
+        // Then
+        assertEquals(false, messages.get(0).get("read"));
+        assertEquals(true, messages.get(1).get("read"));
+        assertNotNull(messages.get(1).get("readAt"));
+    }
+
+    @Test
+    void deleteMessage_unreadMessage_decrementsUnreadCounter() {
+        // Given
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("id", "msg-123");
+        messageData.put("read", false);
+        givenPipelinedReads(Arrays.asList((Object) null), List.of(legacyJson(messageData)));
+
+        // When
+        boolean result = messageStorageService.deleteMessage("msg-123", "project1", "user1@example.com");
+
+        // Then
+        assertTrue(result);
+        verify(redisTemplate, times(1)).delete(List.of("msg:msg-123", "message:msg-123"));
+        verify(zSetOps, times(1)).remove("user:inbox:project1:user1@example.com", "msg-123");
+        verify(valueOps, times(1)).increment("user:unread:project1:user1@example.com", -1L);
+        verifyNoInteractions(listOps);
+    }
+
+    @Test
+    void deleteMessages_removesManyInOnePipelineWithoutListScans() {
+        // Given
+        // msg-1 is unread and msg-2 read, both stored on the same day; msg-3 belongs to another
+        // project and msg-4 has already expired
+        long createdAtMillis = 1_700_000_000_000L;
+        givenPipelinedReads(
+            List.of(hash("cr", "content-1", "r", "user1@example.com"),
+                hash("cr", "content-1", "r", "user1@example.com", "ra", "1500"),
+                hash("p", "project2", "ca", "1000"),
+                Map.of()),
+            List.of(hash("p", "project1", "ca", String.valueOf(createdAtMillis))));
+        String projectIndexKey = "project:index:project1:"
+            + java.time.LocalDate.ofInstant(java.time.Instant.ofEpochMilli(createdAtMillis), java.time.ZoneOffset.UTC);
+
+        // When
+        int deleted = messageStorageService.deleteMessages("project1", "user1@example.com",
+            List.of("msg-1", "msg-2", "msg-3", "msg-4"));
+
+        // Then
+        assertEquals(2, deleted);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, times(1)).delete(List.of("msg:msg-1", "message:msg-1", "msg:msg-2", "message:msg-2",
+            "msg:msg-4", "message:msg-4"));
+        verify(zSetOps, times(1)).remove("user:inbox:project1:user1@example.com", "msg-1", "msg-2", "msg-4");
+        verify(zSetOps, times(1)).remove(projectIndexKey, "msg-1", "msg-2");
+        verify(valueOps, times(1)).increment("user:unread:project1:user1@example.com", -1L);
+        verifyNoInteractions(listOps);
     }
 
     @Test
     void markMessageAsRead_messageNotFound_shouldReturnFalse() {
         // Given
         String messageId = "msg-123";
-        when(valueOps.get(anyString())).thenReturn(null);
+        when(stringValueOps.get(anyString())).thenReturn(null);
 
         // When
         boolean result = messageStorageService.markMessageAsRead(messageId);
@@ -151,22 +663,75 @@ class MessageStorageServiceTest {
         // Given
         String projectId = "project1";
         String recipient = "user1@example.com";
-        String messageId = "msg-123";
-        
-        Map<String, Object> messageData = new HashMap<>();
-        messageData.put("id", messageId);
-        messageData.put("read", false);
         
-        when(listOps.range(anyString(), eq(0L), eq(99L)))
-            .thenReturn(List.of(messageId));
-        when(valueOps.get(anyString()))
-            .thenReturn(messageData);
+        when(valueOps.get("user:unread:project1:user1@example.com"))
+            .thenReturn(1);
 
         // When
         long count = messageStorageService.getUnreadMessageCount(projectId, recipient);
 
         // Then
         assertEquals(1, count);
+        verifyNoInteractions(listOps);
+    }
+
+    @Test
+    void getUnreadMessageCount_missingCounter_isCountedOnceAndSeeded() {
+        // Given
+        when(zSetOps.reverseRangeWithScores("user:inbox:project1:user1@example.com", 0L, 99L))
+            .thenReturn(inbox("msg-2", 2000, "msg-1", 1000));
+        givenCompactMessages(hash("ca", "2000"), hash("ca", "1000", "ra", "1500"));
+
+        // When
+        long count = messageStorageService.getUnreadMessageCount("project1", "user1@example.com");
+
+        // Then
+        assertEquals(1, count);
+        verify(valueOps, times(1)).set("user:unread:project1:user1@example.com", 1L, 30L, java.util.concurrent.TimeUnit.DAYS);
+        verify(zSetOps, times(1)).add("unread:reconcile", "project1:user1@example.com", 1000.0 + 30L * 24 * 60 * 60 * 1000);
+    }
+
+    @Test
+    void reconcileUnreadCounts_recountsDueInboxes() {
+        // Given
+        when(zSetOps.rangeByScore(eq("unread:reconcile"), eq(0.0), anyDouble(), eq(0L), eq(100L)))
+            .thenReturn(Set.of("project1:user:with:colons"));
+        when(zSetOps.reverseRangeWithScores("user:inbox:project1:user:with:colons", 0L, 99L))
+            .thenReturn(inbox());
+
+        // When
+        messageStorageService.reconcileUnreadCounts();
+
+        // Then
+        verify(redisTemplate, times(1)).delete("user:unread:project1:user:with:colons");
+        verify(zSetOps, times(1)).remove("unread:reconcile", "project1:user:with:colons");
+    }
+
+    @Test
+    void getProjectMessageStats_readsRolledUpCountersInOneRoundTrip() {
+        // Given
+        List<Object> hashes = new ArrayList<>();
+        hashes.add(hash("total", "1200", "channel:webhook", "1000", "channel:email", "200"));
+        hashes.add(hash("total", "30", "channel:webhook", "30"));
+        hashes.add(Map.of());
+        hashes.add(hash("total", "5", "channel:email", "5"));
+        hashes.addAll(java.util.Collections.nCopies(4, Map.of()));
+        givenPipelinedReads(hashes);
+
+        // When
+        Map<String, Object> stats = messageStorageService.getProjectMessageStats("project1");
+
+        // Then
+        assertEquals(1200L, stats.get("totalMessages"));
+        assertEquals(Map.of("webhook", 1000L, "email", 200L), stats.get("byChannel"));
+        List<?> daily = (List<?>) stats.get("daily");
+        assertEquals(2, daily.size());
+        assertEquals(30L, ((Map<?, ?>) daily.get(0)).get("totalMessages"));
+        assertEquals(java.time.LocalDate.now(java.time.ZoneOffset.UTC).minusDays(2).toString(), ((Map<?, ?>) daily.get(1)).get("date"));
+        verify(hashOps, times(1)).entries("project:stats:project1");
+        verify(hashOps, times(8)).entries(startsWith("project:stats:project1"));
+        verify(stringRedisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verifyNoInteractions(listOps);
     }
 
     @Test
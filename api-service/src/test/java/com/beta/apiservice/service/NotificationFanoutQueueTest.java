@@ -0,0 +1,97 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.dto.NotificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationFanoutQueueTest {
+
+    @Mock
+    private NotificationFanoutWriter writer;
+
+    private NotificationFanoutQueue fanoutQueue;
+
+    @BeforeEach
+    void setUp() {
+        fanoutQueue = new NotificationFanoutQueue(writer);
+        ReflectionTestUtils.setField(fanoutQueue, "queueCapacity", 2);
+        ReflectionTestUtils.setField(fanoutQueue, "workerCount", 1);
+        ReflectionTestUtils.setField(fanoutQueue, "batchSize", 10);
+        ReflectionTestUtils.setField(fanoutQueue, "enqueueTimeoutMs", 10L);
+        ReflectionTestUtils.setField(fanoutQueue, "shutdownTimeoutSeconds", 5L);
+    }
+
+    @Test
+    void shutdown_flushesEveryQueuedTask() {
+        // Given
+        AtomicInteger writtenTasks = new AtomicInteger();
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            writtenTasks.addAndGet(invocation.<List<?>>getArgument(0).size());
+            return 0;
+        });
+        fanoutQueue.start();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            fanoutQueue.enqueue(task("notif-" + i));
+        }
+        fanoutQueue.shutdown();
+
+        // Then
+        assertEquals(5, writtenTasks.get());
+        assertEquals(5L, fanoutQueue.getStats().get("written"));
+        assertEquals(0, fanoutQueue.getStats().get("queueDepth"));
+    }
+
+    @Test
+    void enqueue_fullQueue_writesOnCallerThread() throws Exception {
+        // Given a worker stuck on the first batch
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            if (Thread.currentThread() != caller) {
+                workerBusy.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return 0;
+        });
+        fanoutQueue.start();
+        fanoutQueue.enqueue(task("busy"));
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+
+        // When the queue is filled past its capacity
+        fanoutQueue.enqueue(task("queued-1"));
+        fanoutQueue.enqueue(task("queued-2"));
+        fanoutQueue.enqueue(task("overflow"));
+
+        // Then
+        assertEquals(1L, fanoutQueue.getStats().get("callerRuns"));
+        assertEquals(2, fanoutQueue.getStats().get("queueDepth"));
+
+        release.countDown();
+        fanoutQueue.shutdown();
+        assertEquals(4L, fanoutQueue.getStats().get("written"));
+    }
+
+    private FanoutTask task(String notificationId) {
+        NotificationRequest request = new NotificationRequest(
+            "project1", List.of("user1"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        return new FanoutTask(notificationId, "project1", request, Map.of("id", notificationId));
+    }
+}
@@ -0,0 +1,94 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.dto.NotificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationFanoutWriterTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOps;
+
+    @Mock
+    private ListOperations<String, Object> listOps;
+
+    @Mock
+    private MessageStorageService messageStorageService;
+
+    private NotificationFanoutWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new NotificationFanoutWriter(redisTemplate, messageStorageService);
+        ReflectionTestUtils.setField(writer, "pipelineBatchSize", 500);
+
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOps);
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    @Test
+    void write_storesStatusOncePerNotificationAndBatchesRecipientIndexes() {
+        // Given
+        List<String> recipients = IntStream.range(0, 1200)
+            .mapToObj(i -> "user" + i)
+            .toList();
+        NotificationRequest request = new NotificationRequest(
+            "project1", recipients, "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        FanoutTask task = new FanoutTask("notif-1", "project1", request, Map.of("id", "notif-1"));
+
+        // When
+        int failed = writer.write(List.of(task));
+
+        // Then
+        assertEquals(0, failed);
+        verify(messageStorageService, times(1)).storeMessages(eq("project1"), eq(recipients), eq("Hello"), eq("Title"), eq("webhook"), any());
+        verify(valueOps, times(1)).set(eq("notification:status:notif-1"), any(Map.class), eq(30L), eq(java.util.concurrent.TimeUnit.DAYS));
+        // One pipeline for the status, three for the 1200 recipient indexes
+        verify(redisTemplate, times(4)).executePipelined(any(SessionCallback.class));
+        verify(listOps, times(1200)).leftPush(anyString(), eq("notif-1"));
+    }
+
+    @Test
+    void write_storageFailure_isCountedAndDoesNotStopBatch() {
+        // Given
+        NotificationRequest request = new NotificationRequest(
+            "project1", List.of("user1"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        FanoutTask first = new FanoutTask("notif-1", "project1", request, Map.of("id", "notif-1"));
+        FanoutTask second = new FanoutTask("notif-2", "project1", request, Map.of("id", "notif-2"));
+        when(messageStorageService.storeMessages(anyString(), anyList(), any(), any(), any(), any()))
+            .thenThrow(new RuntimeException("Failed to store message"))
+            .thenReturn(List.of("msg-2"));
+
+        // When
+        int failed = writer.write(List.of(first, second));
+
+        // Then
+        assertEquals(1, failed);
+        verify(listOps, times(1)).leftPush(anyString(), eq("notif-2"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.dto.BulkItemResult;
+import com.beta.apiservice.dto.BulkSendResult;
+import com.beta.apiservice.dto.NotificationRequest;
+import com.beta.apiservice.kafka.Producer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private Producer producer;
+
+    @Mock
+    private NotificationFanoutQueue fanoutQueue;
+
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService(redisTemplate, new ObjectMapper(), producer, fanoutQueue);
+        ReflectionTestUtils.setField(notificationService, "bulkMaxConcurrency", 4);
+        ReflectionTestUtils.setField(notificationService, "bulkBatchSize", 2);
+        ReflectionTestUtils.setField(notificationService, "bulkAckTimeoutSeconds", 5L);
+        notificationService.init();
+    }
+
+    @Test
+    void sendNotification_queuesFanoutWithoutTouchingRedis() throws Exception {
+        // Given
+        NotificationRequest request = new NotificationRequest(
+            "project1", List.of("user1", "user2"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+
+        // When
+        String notificationId = notificationService.sendNotification(request, "project1");
+
+        // Then
+        ArgumentCaptor<FanoutTask> task = ArgumentCaptor.forClass(FanoutTask.class);
+        verify(producer, times(1)).sendMessage(eq("project1"), contains(notificationId));
+        verify(fanoutQueue, times(1)).enqueue(task.capture());
+        assertEquals(notificationId, task.getValue().notificationId());
+        assertEquals("project1", task.getValue().projectId());
+        assertEquals(List.of("user1", "user2"), task.getValue().recipients());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void partitionKey_isTheProjectWhateverTheRecipients() {
+        // Given
+        NotificationRequest single = new NotificationRequest(
+            "project1", List.of("user1"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        NotificationRequest several = new NotificationRequest(
+            "project1", List.of("user1", "user2"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+
+        // When / Then
+        assertEquals("project1", NotificationService.partitionKey(new FanoutTask("n1", "project1", single, Map.of())));
+        assertEquals("project1", NotificationService.partitionKey(new FanoutTask("n2", "project1", several, Map.of())));
+    }
+
+    @Test
+    void sendBulkNotifications_reportsPerItemResultsInRequestOrder() {
+        // Given
+        NotificationRequest valid = new NotificationRequest(
+            "project1", List.of("user1"), "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        NotificationRequest rejectedByKafka = new NotificationRequest(
+            "project1", List.of("user2"), "Broken", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        NotificationRequest noRecipients = new NotificationRequest(
+            "project1", null, "Hello", "Title", "webhook", null, Map.of(), Map.of(), Map.of());
+        when(producer.sendMessage(anyString(), anyString())).thenAnswer(invocation ->
+            invocation.<String>getArgument(1).contains("Broken")
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+                : CompletableFuture.completedFuture(null));
+
+        // When
+        BulkSendResult result = notificationService.sendBulkNotifications(
+            List.of(valid, rejectedByKafka, noRecipients, valid, valid), "project1");
+
+        // Then
+        assertEquals(5, result.total());
+        assertEquals(3, result.sent());
+        assertEquals(List.of(1, 2), result.failures().stream().map(BulkItemResult::index).toList());
+        assertEquals("Failed to send notification: broker unavailable", result.results().get(1).error());
+        assertEquals("recipients are required", result.results().get(2).error());
+        assertNotNull(result.results().get(4).notificationId());
+        verify(fanoutQueue, times(3)).enqueue(any(FanoutTask.class));
+    }
+
+    @Test
+    void sendBulkNotifications_ndjsonStream_reportsEachBatchAsItCompletes() throws Exception {
+        // Given
+        String record = "{\"recipients\":[\"user1\"],\"message\":\"Hello\",\"channel\":\"webhook\"}\n";
+        InputStream ndjson = new ByteArrayInputStream(record.repeat(5).getBytes(StandardCharsets.UTF_8));
+        when(producer.sendMessage(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        List<List<BulkItemResult>> batches = new ArrayList<>();
+
+        // When
+        notificationService.sendBulkNotifications(ndjson, "project1", batches::add);
+
+        // Then
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+        assertEquals(4, batches.get(2).get(0).index());
+        verify(fanoutQueue, times(5)).enqueue(any(FanoutTask.class));
+    }
+
+    @Test
+    void sendBulkNotifications_malformedRecord_sendsPrecedingRecordsThenFails() {
+        // Given
+        String record = "{\"recipients\":[\"user1\"],\"message\":\"Hello\",\"channel\":\"webhook\"}\n";
+        InputStream ndjson = new ByteArrayInputStream((record.repeat(3) + "{not json}\n" + record).getBytes(StandardCharsets.UTF_8));
+        when(producer.sendMessage(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        List<List<BulkItemResult>> batches = new ArrayList<>();
+
+        // When / Then
+        assertThrows(JsonProcessingException.class,
+            () -> notificationService.sendBulkNotifications(ndjson, "project1", batches::add));
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+        verify(fanoutQueue, times(3)).enqueue(any(FanoutTask.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.model.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private ProjectCache projectCache;
+
+    @BeforeEach
+    void setUp() {
+        projectCache = new ProjectCache(redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(projectCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(projectCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(projectCache, "negativeMaxSize", 100L);
+        ReflectionTestUtils.setField(projectCache, "negativeTtlSeconds", 60L);
+        projectCache.init();
+    }
+
+    @Test
+    void get_cachedProject_doesNotCallLoaderAgain() {
+        // Given
+        Project project = new Project();
+        project.setId("proj_1");
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Project> loader = apiKey -> {
+            loads.incrementAndGet();
+            return project;
+        };
+
+        // When
+        projectCache.get("sk_live_known", loader);
+        Project cached = projectCache.get("sk_live_known", loader);
+
+        // Then
+        assertSame(project, cached);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_unknownKey_isCachedNegatively() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        projectCache.get("sk_live_missing", apiKey -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Project second = projectCache.get("sk_live_missing", apiKey -> fail("should not reload"));
+
+        // Then
+        assertNull(second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_loaderFailure_isNotCached() {
+        // When
+        assertThrows(IllegalStateException.class,
+            () -> projectCache.get("sk_live_known", apiKey -> { throw new IllegalStateException("redis down"); }));
+        Project project = projectCache.get("sk_live_known", apiKey -> new Project());
+
+        // Then
+        assertNotNull(project);
+    }
+
+    @Test
+    void get_keyRegisteredWithoutInvalidation_isLoadedFromRedis() {
+        // Given
+        // A node that missed the registration broadcast has nothing cached for the key
+        Project registered = new Project();
+        registered.setId("proj_2");
+
+        // When
+        Project project = projectCache.get("sk_live_registered_elsewhere", apiKey -> registered);
+
+        // Then
+        assertSame(registered, project);
+        assertEquals(1L, projectCache.getStats().get("misses"));
+    }
+
+    @Test
+    void invalidate_newlyRegisteredKey_isAcceptedAndBroadcast() {
+        // Given
+        projectCache.get("sk_live_new", apiKey -> null);
+
+        // When
+        projectCache.invalidate("sk_live_new");
+        Project project = projectCache.get("sk_live_new", apiKey -> new Project());
+
+        // Then
+        assertNotNull(project);
+        verify(redisTemplate).convertAndSend(anyString(), eq("sk_live_new"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.beta.apiservice.service;
+
+import com.beta.apiservice.model.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectRateLimiterTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private ProjectRateLimiter rateLimiter;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new ProjectRateLimiter(redisTemplate);
+        ReflectionTestUtils.setField(rateLimiter, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(rateLimiter, "burstSeconds", 60L);
+        now = 10 * 60_000L + 15_000L;
+        rateLimiter.clock = () -> now;
+    }
+
+    private Project project(int rateLimit) {
+        Project project = new Project();
+        project.setId("project1");
+        project.setRateLimit(rateLimit);
+        return project;
+    }
+
+    @Test
+    void tryAcquire_admitsUpToBurstThenThrottlesUntilNextToken() {
+        // Given
+        Project project = project(3);
+
+        // When / Then
+        assertEquals(0, rateLimiter.tryAcquire(project));
+        assertEquals(0, rateLimiter.tryAcquire(project));
+        assertEquals(0, rateLimiter.tryAcquire(project));
+        // 3 per minute refills one token every 20 seconds
+        assertEquals(20, rateLimiter.tryAcquire(project));
+
+        now += 20_000L;
+        assertEquals(0, rateLimiter.tryAcquire(project));
+
+        assertEquals(4L, rateLimiter.getStats().get("admitted"));
+        assertEquals(1L, rateLimiter.getStats().get("throttled"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void tryAcquire_drainedBucket_admitsOnlyTheRefillAcrossAWindowBoundary() {
+        // Given
+        Project project = project(60);
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(project));
+        }
+
+        // When
+        now += 1_000L;
+
+        // Then
+        assertEquals(0, rateLimiter.tryAcquire(project));
+        assertEquals(1, rateLimiter.tryAcquire(project));
+    }
+
+    @Test
+    void reconcile_pushesLocalCountAndDebitsOtherReplicas() {
+        // Given
+        Project project = project(10);
+        rateLimiter.tryAcquire(project);
+        rateLimiter.tryAcquire(project);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(List.of(2L, true))
+            // Other replicas admitted 7 requests since the first run
+            .thenReturn(List.of(10L, true));
+        rateLimiter.reconcile();
+        rateLimiter.tryAcquire(project);
+
+        // When
+        rateLimiter.reconcile();
+
+        // Then
+        assertTrue(rateLimiter.tryAcquire(project) > 0);
+    }
+
+    @Test
+    void reconcile_redisFailure_keepsLocalBucketAndRetriesDelta() {
+        // Given
+        Project project = project(5);
+        rateLimiter.tryAcquire(project);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenThrow(new IllegalStateException("redis down"))
+            .thenReturn(List.of(1L, true));
+
+        // When
+        rateLimiter.reconcile();
+        rateLimiter.reconcile();
+
+        // Then
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(project));
+        }
+        assertTrue(rateLimiter.tryAcquire(project) > 0);
+    }
+
+    @Test
+    void tryAcquire_projectWithoutLimit_isAlwaysAdmitted() {
+        // Given
+        Project project = new Project();
+        project.setId("project1");
+
+        // When / Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(project));
+        }
+    }
+}
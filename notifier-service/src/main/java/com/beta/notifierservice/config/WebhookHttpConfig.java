@@ -0,0 +1,32 @@
+package com.beta.notifierservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class WebhookHttpConfig {
+
+    @Value("${app.webhook.connect-timeout-ms:2000}")
+    private long connectTimeoutMillis;
+
+    /**
+     * One shared client for all webhook deliveries. It keeps connections alive between
+     * requests and negotiates HTTP/2 where the endpoint supports it, multiplexing requests to
+     * the same host over one connection; HTTP/1.1 endpoints get a pooled connection per
+     * concurrent request, which app.delivery.max-per-host bounds.
+     */
+    @Bean(destroyMethod = "close")
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+}
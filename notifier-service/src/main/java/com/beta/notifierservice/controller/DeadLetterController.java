@@ -0,0 +1,115 @@
+package com.beta.notifierservice.controller;
+
+import com.beta.notifierservice.kafka.DeadLetterPublisher;
+import com.beta.notifierservice.kafka.DeadLetterReplayer;
+import com.beta.notifierservice.kafka.ReplayFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Admin endpoints for replaying the dead-letter topic. They need the X-Admin-Token header to
+ * match app.admin.token, and are disabled while no token is configured.
+ */
+@RestController
+@RequestMapping("/api/admin/dlq")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @Value("${app.admin.token:}")
+    private String adminToken;
+
+    @Value("${app.dlq.replay.default-rate:500}")
+    private int defaultRate;
+
+    @Value("${app.dlq.replay.max-rate:5000}")
+    private int maxRate;
+
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @RequestBody(required = false) Map<String, Object> request) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin token missing or invalid"));
+        }
+        ReplayFilter filter;
+        try {
+            filter = filter(request != null ? request : Map.of());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(deadLetterReplayer.start(filter).toMap());
+    }
+
+    @GetMapping("/replay/{replayId}")
+    public ResponseEntity<Map<String, Object>> replayStatus(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @PathVariable String replayId) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin token missing or invalid"));
+        }
+        DeadLetterReplayer.ReplayJob job = deadLetterReplayer.get(replayId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Replay not found: " + replayId));
+        }
+        return ResponseEntity.ok(job.toMap());
+    }
+
+    ReplayFilter filter(Map<String, Object> request) {
+        Object errorType = request.get("errorType");
+        int rate = request.get("ratePerSecond") instanceof Number number ? number.intValue() : defaultRate;
+        if (rate <= 0 || rate > maxRate) {
+            throw new IllegalArgumentException("ratePerSecond must be between 1 and " + maxRate);
+        }
+        Long from = instant(request.get("from"));
+        Long to = instant(request.get("to"));
+        if (from != null && to != null && from > to) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return new ReplayFilter(
+                (String) request.get("projectId"),
+                errorType != null ? DeadLetterPublisher.ErrorType.valueOf(errorType.toString()) : null,
+                from,
+                to,
+                rate,
+                Boolean.TRUE.equals(request.get("dryRun")));
+    }
+
+    /**
+     * An ISO-8601 instant or epoch millis.
+     */
+    private static Long instant(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Instant.parse(value.toString()).toEpochMilli();
+    }
+
+    private boolean authorized(String token) {
+        if (adminToken == null || adminToken.isBlank() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
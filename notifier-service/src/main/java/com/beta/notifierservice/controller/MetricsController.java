@@ -0,0 +1,39 @@
+package com.beta.notifierservice.controller;
+
+import com.beta.notifierservice.service.ChannelRegistry;
+import com.beta.notifierservice.service.CircuitBreakerRegistry;
+import com.beta.notifierservice.service.DeliveryDispatcher;
+import com.beta.notifierservice.service.RetryScheduler;
+import com.beta.notifierservice.service.WebhookHttpClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final DeliveryDispatcher deliveryDispatcher;
+    private final WebhookHttpClient webhookHttpClient;
+    private final RetryScheduler retryScheduler;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final ChannelRegistry channelRegistry;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("delivery", deliveryDispatcher.getStats());
+        response.put("webhookHttp", webhookHttpClient.getStats());
+        response.put("retries", retryScheduler.getStats());
+        response.put("circuitBreakers", circuitBreakers.getStats());
+        response.put("channels", channelRegistry.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,19 +1,30 @@
 package com.beta.notifierservice.kafka;
 
+import com.beta.notifierservice.service.ChannelRegistry;
+import com.beta.notifierservice.service.DeliveryDispatcher;
 import com.beta.notifierservice.service.NotificationChannel;
 import com.beta.notifierservice.service.NotificationStatusService;
+import com.beta.notifierservice.service.RetryScheduler;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 @RequiredArgsConstructor
@@ -22,89 +33,199 @@ public class Consumer {
 
     private final ObjectMapper objectMapper;
     private final NotificationStatusService notificationStatusService;
-    private final List<NotificationChannel> notificationChannels;
-
-    @KafkaListener(id = "notifierServiceConsumer", topics = "${app.kafka.topic:notifyx_test}", groupId = "notifier-service-group")
-    public void listen(String value,
-                       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                       @Header(KafkaHeaders.RECEIVED_KEY) String key) {
-        log.info("Consumed event from topic {}: key = {}", topic, key);
-        
-        try {
-            JsonNode notificationData = objectMapper.readTree(value);
-            processNotification(notificationData, key);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse notification data", e);
-        } catch (Exception e) {
-            log.error("Failed to process notification", e);
+    private final ChannelRegistry channelRegistry;
+    private final DeliveryDispatcher deliveryDispatcher;
+    private final RetryScheduler retryScheduler;
+    private final DeadLetterPublisher deadLetterPublisher;
+
+    /**
+     * Handle one poll batch. Records are parsed and grouped by key; each group is delivered in
+     * record order on its own virtual thread, so notifications sharing a key stay ordered while
+     * different keys are delivered concurrently; the dispatcher bounds the deliveries in flight. All
+     * statuses are written in one Redis pipeline, and the batch's offsets are committed when this
+     * returns, so a failed status write redelivers the batch. A replayed dead letter covers only
+     * some recipients of its notification, so its counts are added to the notification's replay
+     * counters rather than replacing its status. Records that are not valid JSON are
+     * dead-lettered before anything is delivered, so a failure to do that redelivers the batch
+     * without sending anything twice. A failure to dead-letter recipients that cannot be retried
+     * also redelivers the batch, as losing them would be worse than sending some notifications twice.
+     */
+    // One listener thread per partition by default; partitions beyond that are shared, and threads beyond it idle
+    @KafkaListener(id = "notifierServiceConsumer", topics = "${app.kafka.topic:notifyx_test}", groupId = "notifier-service-group",
+                   concurrency = "${app.kafka.listener.concurrency:${app.kafka.partitions:12}}",
+                   containerFactory = KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY)
+    public void listen(List<ConsumerRecord<String, String>> records) {
+        log.info("Consumed batch of {} events", records.size());
+
+        Map<String, List<ParsedNotification>> byKey = new LinkedHashMap<>();
+        List<CompletableFuture<?>> deadLetters = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                JsonNode notificationData = objectMapper.readTree(record.value());
+                String notificationId = notificationId(notificationData, record.key());
+                boolean replayed = record.headers().lastHeader(DeadLetterReplayer.REPLAY_ID_HEADER) != null;
+                byKey.computeIfAbsent(String.valueOf(record.key()), key -> new ArrayList<>())
+                        .add(new ParsedNotification(notificationId, notificationData, replayed));
+            } catch (JsonProcessingException e) {
+                log.error("Failed to parse notification data at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+                deadLetters.add(deadLetterPublisher.publish(record, DeadLetterPublisher.ErrorType.PARSE_ERROR, e.getOriginalMessage()));
+            }
+        }
+        CompletableFuture.allOf(deadLetters.toArray(CompletableFuture[]::new)).join();
+
+        List<Future<List<DeliveryStatus>>> groups = new ArrayList<>(byKey.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<ParsedNotification> notifications : byKey.values()) {
+                groups.add(executor.submit(() -> processGroup(notifications)));
+            }
+        }
+
+        Map<String, Map<String, Object>> statuses = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> replays = new LinkedHashMap<>();
+        for (Future<List<DeliveryStatus>> group : groups) {
+            try {
+                for (DeliveryStatus status : group.get()) {
+                    if (status.replayed()) {
+                        addReplayCounts(replays.computeIfAbsent(status.notificationId(), id -> new LinkedHashMap<>()), status.data());
+                    } else {
+                        statuses.put(status.notificationId(), status.data());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while delivering notification batch", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CompletionException retryFailure) {
+                    throw new IllegalStateException("Failed to retry or dead-letter undelivered notifications", retryFailure.getCause());
+                }
+                // processNotification reports its own other failures, so this is not expected
+                log.error("Failed to deliver notification group", e.getCause());
+            }
+        }
+
+        notificationStatusService.saveAll(statuses, replays);
+        log.info("Updated {} notification statuses and {} replayed", statuses.size(), replays.size());
+    }
+
+    private List<DeliveryStatus> processGroup(List<ParsedNotification> notifications) {
+        List<DeliveryStatus> statuses = new ArrayList<>(notifications.size());
+        for (ParsedNotification notification : notifications) {
+            statuses.add(new DeliveryStatus(notification.id(), notification.replayed(),
+                    processNotification(notification.data(), notification.id())));
+        }
+        return statuses;
+    }
+
+    /**
+     * Add one replayed record's counts to its notification's totals for this batch. A record that
+     * failed before delivery has no counts, and is counted as an error.
+     */
+    static void addReplayCounts(Map<String, Long> counts, Map<String, Object> status) {
+        counts.merge("replayed", 1L, Long::sum);
+        if (!status.containsKey("total")) {
+            counts.merge("errors", 1L, Long::sum);
+            return;
+        }
+        for (String field : List.of("delivered", "failed", "deferred", "retriesScheduled")) {
+            if (status.get(field) instanceof Number count) {
+                counts.merge(field, count.longValue(), Long::sum);
+            }
         }
     }
-    
-    private void processNotification(JsonNode notificationData, String notificationId) {
+
+    private record ParsedNotification(String id, JsonNode data, boolean replayed) {}
+
+    private record DeliveryStatus(String notificationId, boolean replayed, Map<String, Object> data) {}
+
+    /**
+     * Records are keyed by project, so the ID comes from the payload. Records
+     * produced before that were keyed by notification ID.
+     */
+    static String notificationId(JsonNode notificationData, String key) {
+        JsonNode id = notificationData.get("id");
+        return id != null && !id.isNull() ? id.asText() : key;
+    }
+
+    private Map<String, Object> processNotification(JsonNode notificationData, String notificationId) {
         try {
             String projectId = notificationData.get("projectId").asText();
             String channel = notificationData.get("channel").asText();
             String message = notificationData.get("message").asText();
             String title = notificationData.has("title") ? notificationData.get("title").asText() : null;
-            
+
             JsonNode recipientsNode = notificationData.get("recipients");
             JsonNode channelConfigNode = notificationData.get("channelConfig");
-            
+
             Map<String, Object> channelConfig = null;
             if (channelConfigNode != null && !channelConfigNode.isNull()) {
                 channelConfig = objectMapper.convertValue(channelConfigNode, Map.class);
             }
-            
+
             // Find the appropriate channel
-            NotificationChannel targetChannel = notificationChannels.stream()
-                .filter(ch -> ch.supports(channel))
-                .findFirst()
-                .orElse(null);
-            
+            NotificationChannel targetChannel = channelRegistry.find(channel);
+
             if (targetChannel == null) {
-                log.error("No channel found for type: {}", channel);
-                updateNotificationStatus(notificationId, "FAILED", "Channel not supported: " + channel);
-                return;
+                log.error("No channel found for type: {} in project: {}", channel, projectId);
+                return notificationStatus(notificationId, "FAILED", "Channel not supported: " + channel);
             }
-            
-            // Send to each recipient
-            boolean allSuccess = true;
+
+            // Send to all recipients concurrently
+            List<String> recipients = new ArrayList<>();
             for (JsonNode recipientNode : recipientsNode) {
-                String recipient = recipientNode.asText();
-                
-                boolean success = targetChannel.send(recipient, message, title, channelConfig);
-                if (!success) {
-                    allSuccess = false;
-                    log.warn("Failed to send notification to recipient: {}", recipient);
-                }
+                recipients.add(recipientNode.asText());
             }
-            
+            DeliveryDispatcher.DeliveryResult result =
+                    deliveryDispatcher.deliver(targetChannel, recipients, message, title, channelConfig);
+
+            // Retry failed and deferred recipients later, off the consumer thread
+            List<String> undelivered = result.undelivered();
+            String error = undelivered.isEmpty() ? null
+                    : result.failed() + " of " + recipients.size() + " deliveries failed, " + result.deferred() + " deferred";
+            int retries = undelivered.isEmpty() ? 0 : scheduleRetries(notificationId, projectId, channel, message, title,
+                    channelConfig, result, error);
+
             // Update status
-            String status = allSuccess ? "DELIVERED" : "PARTIALLY_DELIVERED";
-            updateNotificationStatus(notificationId, status, null);
-            
+            Map<String, Object> statusData = notificationStatus(notificationId, result.status(), error);
+            statusData.put("delivered", result.delivered());
+            statusData.put("failed", result.failed());
+            statusData.put("deferred", result.deferred());
+            statusData.put("total", recipients.size());
+            statusData.put("retriesScheduled", retries);
+            return statusData;
+
+        } catch (CompletionException e) {
+            // Undelivered recipients could not be retried or dead-lettered; fail the batch rather than lose them
+            throw e;
         } catch (Exception e) {
             log.error("Failed to process notification: {}", notificationId, e);
-            updateNotificationStatus(notificationId, "FAILED", e.getMessage());
+            return notificationStatus(notificationId, "FAILED", e.getMessage());
         }
     }
-    
-    private void updateNotificationStatus(String notificationId, String status, String errorMessage) {
+
+    /**
+     * Hand the undelivered recipients to the retry scheduler. Any failure, a Redis error as much as
+     * a dead letter that could not be published, is rethrown as a CompletionException so that the
+     * batch is redelivered.
+     */
+    private int scheduleRetries(String notificationId, String projectId, String channel, String message, String title,
+                                Map<String, Object> channelConfig, DeliveryDispatcher.DeliveryResult result, String error) {
         try {
-            Map<String, Object> statusData = Map.of(
-                "notificationId", notificationId,
-                "status", status,
-                "timestamp", System.currentTimeMillis(),
-                "errorMessage", errorMessage
-            );
-            
-            notificationStatusService.save(notificationId, statusData);
-            log.info("Updated notification status: {} -> {}", notificationId, status);
-            
-        } catch (Exception e) {
-            log.error("Failed to update notification status: {}", notificationId, e);
+            return retryScheduler.scheduleRetries(notificationId, projectId, channel, message, title, channelConfig,
+                    result.failedRecipients(), result.deferredRecipients(), error);
+        } catch (CompletionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new CompletionException(e);
         }
     }
-}
-
 
+    private Map<String, Object> notificationStatus(String notificationId, String status, String errorMessage) {
+        // Not Map.of, which rejects the null error message of a successful delivery
+        Map<String, Object> statusData = new HashMap<>();
+        statusData.put("notificationId", notificationId);
+        statusData.put("status", status);
+        statusData.put("timestamp", System.currentTimeMillis());
+        statusData.put("errorMessage", errorMessage);
+        return statusData;
+    }
+}
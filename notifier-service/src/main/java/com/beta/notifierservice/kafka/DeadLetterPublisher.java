@@ -0,0 +1,116 @@
+package com.beta.notifierservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends notifications that cannot be delivered to the dead-letter topic, unchanged, with the
+ * reason in headers so they can be inspected and replayed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterPublisher {
+
+    public static final String ERROR_TYPE_HEADER = "x-dlq-error-type";
+    public static final String ERROR_MESSAGE_HEADER = "x-dlq-error-message";
+    public static final String PROJECT_ID_HEADER = "x-dlq-project-id";
+    public static final String NOTIFICATION_ID_HEADER = "x-dlq-notification-id";
+    public static final String FAILED_AT_HEADER = "x-dlq-failed-at";
+    public static final String ATTEMPTS_HEADER = "x-dlq-attempts";
+    public static final String SOURCE_TOPIC_HEADER = "x-dlq-source-topic";
+    public static final String SOURCE_PARTITION_HEADER = "x-dlq-source-partition";
+    public static final String SOURCE_OFFSET_HEADER = "x-dlq-source-offset";
+
+    private static final Pattern PROJECT_ID_FIELD = Pattern.compile("\"projectId\"\\s*:\\s*\"([^\"\\\\]+)\"");
+
+    public enum ErrorType {
+        /** The record was not valid JSON. */
+        PARSE_ERROR,
+        /** Every delivery attempt to a recipient failed. */
+        DELIVERY_EXHAUSTED,
+        /** A delivery was deferred, and never attempted, while retrying was disabled. */
+        DELIVERY_DEFERRED
+    }
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${app.kafka.dlq-topic:notifyx_test.dlq}")
+    private String deadLetterTopic;
+
+    /**
+     * Dead-letter a consumed record that could not be processed. Such a record may not parse, so
+     * its project is read from the raw value on a best-effort basis; without one, the dead letter
+     * matches only replays that do not filter by project.
+     */
+    public CompletableFuture<SendResult<String, String>> publish(ConsumerRecord<String, String> source,
+                                                                 ErrorType errorType, String errorMessage) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(deadLetterTopic, source.key(), source.value());
+        addFailure(record.headers(), errorType, errorMessage);
+        header(record.headers(), PROJECT_ID_HEADER, projectIdOf(source.value()));
+        header(record.headers(), SOURCE_TOPIC_HEADER, source.topic());
+        header(record.headers(), SOURCE_PARTITION_HEADER, Integer.toString(source.partition()));
+        header(record.headers(), SOURCE_OFFSET_HEADER, Long.toString(source.offset()));
+        return send(record);
+    }
+
+    /**
+     * Dead-letter a notification for one recipient after its delivery attempts ran out.
+     */
+    public CompletableFuture<SendResult<String, String>> publish(String key, String notification, String projectId,
+                                                                 String notificationId, int attempts,
+                                                                 ErrorType errorType, String errorMessage) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(deadLetterTopic, key, notification);
+        addFailure(record.headers(), errorType, errorMessage);
+        header(record.headers(), PROJECT_ID_HEADER, projectId);
+        header(record.headers(), NOTIFICATION_ID_HEADER, notificationId);
+        header(record.headers(), ATTEMPTS_HEADER, Integer.toString(attempts));
+        return send(record);
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(ProducerRecord<String, String> record) {
+        return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            if (ex == null) {
+                log.warn("Dead-lettered record with key {} to {}", record.key(), deadLetterTopic);
+            } else {
+                log.error("Failed to dead-letter record with key {} to {}", record.key(), deadLetterTopic, ex);
+            }
+        });
+    }
+
+    /**
+     * The projectId field of a notification that may not be valid JSON, or null. The record key
+     * is no fallback, as records produced before project keys were keyed by notification ID.
+     */
+    static String projectIdOf(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = PROJECT_ID_FIELD.matcher(value);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void addFailure(Headers headers, ErrorType errorType, String errorMessage) {
+        header(headers, ERROR_TYPE_HEADER, errorType.name());
+        header(headers, ERROR_MESSAGE_HEADER, errorMessage);
+        header(headers, FAILED_AT_HEADER, Long.toString(System.currentTimeMillis()));
+    }
+
+    private static void header(Headers headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
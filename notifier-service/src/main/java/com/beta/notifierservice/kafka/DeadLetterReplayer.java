@@ -0,0 +1,235 @@
+package com.beta.notifierservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-injects dead-lettered notifications into the notification topic. A replay reads every
+ * partition of the dead-letter topic in parallel, from the first record at or after the
+ * filter's start time up to the end of the topic as it was when the replay started, and sends
+ * the matching records back under their original keys at no more than the requested rate.
+ * Each re-injected record carries the replay's ID in a header, so the consumer adds its results
+ * to the notification's status instead of replacing it. Replays run in the background; their
+ * progress is kept for the most recent ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayer {
+
+    public static final String REPLAY_ID_HEADER = "x-dlq-replay-id";
+
+    private static final int MAX_TRACKED_REPLAYS = 20;
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${app.kafka.topic:notifyx_test}")
+    private String topic;
+
+    @Value("${app.kafka.dlq-topic:notifyx_test.dlq}")
+    private String deadLetterTopic;
+
+    private final Map<String, ReplayJob> replays = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReplayJob> eldest) {
+            return size() > MAX_TRACKED_REPLAYS;
+        }
+    });
+
+    public ReplayJob start(ReplayFilter filter) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), filter);
+        replays.put(job.id, job);
+        Thread.ofVirtual().name("dlq-replay-" + job.id).start(() -> run(job));
+        log.info("Started dead-letter replay {}: {}", job.id, filter);
+        return job;
+    }
+
+    public ReplayJob get(String replayId) {
+        return replays.get(replayId);
+    }
+
+    void run(ReplayJob job) {
+        try {
+            Map<TopicPartition, long[]> ranges = offsetRanges(job.filter);
+            RatePacer pacer = new RatePacer(job.filter.ratePerSecond());
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                ranges.forEach((partition, range) -> executor.submit(() -> replayPartition(job, partition, range[0], range[1], pacer)));
+            }
+            boolean clean = job.failed.get() == 0 && job.failedPartitions.get() == 0;
+            job.finish(clean ? "COMPLETED" : "COMPLETED_WITH_ERRORS", null);
+        } catch (Exception e) {
+            log.error("Dead-letter replay {} failed", job.id, e);
+            job.finish("FAILED", e.getMessage());
+        }
+        log.info("Dead-letter replay {} {}: {}", job.id, job.status, job.toMap());
+    }
+
+    /**
+     * The [start, end) offsets to read in each partition: from the filter's start time (or the
+     * beginning) up to the current end, so records dead-lettered during the replay are left alone.
+     */
+    private Map<TopicPartition, long[]> offsetRanges(ReplayFilter filter) {
+        try (org.apache.kafka.clients.consumer.Consumer<String, String> consumer = createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> starts = new HashMap<>(consumer.beginningOffsets(partitions));
+            if (filter.fromMillis() != null) {
+                Map<TopicPartition, Long> times = new HashMap<>();
+                partitions.forEach(partition -> times.put(partition, filter.fromMillis()));
+                consumer.offsetsForTimes(times).forEach((partition, offset) ->
+                        starts.put(partition, offset != null ? offset.offset() : ends.get(partition)));
+            }
+            Map<TopicPartition, long[]> ranges = new LinkedHashMap<>();
+            for (TopicPartition partition : partitions) {
+                long start = starts.getOrDefault(partition, 0L);
+                long end = ends.getOrDefault(partition, 0L);
+                if (start < end) {
+                    ranges.put(partition, new long[] {start, end});
+                }
+            }
+            return ranges;
+        }
+    }
+
+    private void replayPartition(ReplayJob job, TopicPartition partition, long start, long end, RatePacer pacer) {
+        try (org.apache.kafka.clients.consumer.Consumer<String, String> consumer = createConsumer()) {
+            consumer.assign(List.of(partition));
+            consumer.seek(partition, start);
+            while (consumer.position(partition) < end) {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT).records(partition)) {
+                    if (record.offset() >= end) {
+                        break;
+                    }
+                    job.scanned.incrementAndGet();
+                    if (!job.filter.matches(record)) {
+                        continue;
+                    }
+                    job.matched.incrementAndGet();
+                    if (job.filter.dryRun()) {
+                        continue;
+                    }
+                    pacer.acquire();
+                    ProducerRecord<String, String> replay = new ProducerRecord<>(topic, record.key(), record.value());
+                    replay.headers().add(REPLAY_ID_HEADER, job.id.getBytes(StandardCharsets.UTF_8));
+                    sends.add(kafkaTemplate.send(replay).whenComplete((result, ex) -> {
+                        if (ex == null) {
+                            job.replayed.incrementAndGet();
+                        } else {
+                            job.failed.incrementAndGet();
+                            log.warn("Failed to replay {}-{}@{}", partition.topic(), partition.partition(), record.offset(), ex);
+                        }
+                    }));
+                }
+                // Wait for this poll's sends so progress reflects what Kafka has accepted
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            job.failedPartitions.incrementAndGet();
+            log.error("Dead-letter replay {} stopped reading {}", job.id, partition, e);
+        }
+    }
+
+    private org.apache.kafka.clients.consumer.Consumer<String, String> createConsumer() {
+        Properties properties = new Properties();
+        // Replays read by offset and never commit, so they do not disturb any consumer group
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        return consumerFactory.createConsumer("notifier-dlq-replay", "dlq-replay", null, properties);
+    }
+
+    /**
+     * Spaces sends evenly at the given rate across all partitions of a replay.
+     */
+    static final class RatePacer {
+        private final long intervalNanos;
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+        RatePacer(int ratePerSecond) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        }
+
+        void acquire() throws InterruptedException {
+            long slot = nextSlot.accumulateAndGet(intervalNanos, (next, interval) -> Math.max(next, System.nanoTime()) + interval)
+                    - intervalNanos;
+            long waitNanos = slot - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    public static final class ReplayJob {
+        private final String id;
+        private final ReplayFilter filter;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong failedPartitions = new AtomicLong();
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile Long finishedAt;
+
+        ReplayJob(String id, ReplayFilter filter) {
+            this.id = id;
+            this.filter = filter;
+        }
+
+        private void finish(String status, String error) {
+            this.error = error;
+            this.finishedAt = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("replayId", id);
+            map.put("status", status);
+            map.put("filter", filter);
+            map.put("scanned", scanned.get());
+            map.put("matched", matched.get());
+            map.put("replayed", replayed.get());
+            map.put("failed", failed.get());
+            map.put("failedPartitions", failedPartitions.get());
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("error", error);
+            return map;
+        }
+    }
+}
@@ -2,18 +2,55 @@ package com.beta.notifierservice.kafka;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchListenerContainerFactory";
+
+    /**
+     * Records are keyed by project (or recipient), so the partition count bounds how many
+     * consumers can deliver in parallel while ordering is kept per key. An existing topic is
+     * grown to this count on startup; Kafka never shrinks it.
+     */
     @Bean
-    public NewTopic topic(@Value("${app.kafka.topic:notifyx_test}") String topic) {
-        return new NewTopic(topic, 1, (short) 1);
+    public NewTopic topic(@Value("${app.kafka.topic:notifyx_test}") String topic,
+                          @Value("${app.kafka.partitions:12}") int partitions,
+                          @Value("${app.kafka.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicationFactor).build();
     }
-}
 
+    /**
+     * Notifications that could not be delivered, kept for inspection and replay.
+     */
+    @Bean
+    public NewTopic deadLetterTopic(@Value("${app.kafka.dlq-topic:notifyx_test.dlq}") String topic,
+                                    @Value("${app.kafka.dlq-partitions:${app.kafka.partitions:12}}") int partitions,
+                                    @Value("${app.kafka.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicationFactor).build();
+    }
 
+    /**
+     * Boot's listener factory settings, with whole poll batches handed to the listener and the
+     * offsets committed once it returns. spring.kafka.consumer.max-poll-records bounds the batch size.
+     */
+    @Bean(name = BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+}
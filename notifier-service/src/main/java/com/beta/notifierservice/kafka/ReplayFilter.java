@@ -0,0 +1,37 @@
+package com.beta.notifierservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Which dead-lettered records a replay re-injects. Null criteria match everything; times are
+ * epoch millis compared with the dead-letter record's timestamp, i.e. when it failed.
+ */
+public record ReplayFilter(
+        String projectId,
+        DeadLetterPublisher.ErrorType errorType,
+        Long fromMillis,
+        Long toMillis,
+        int ratePerSecond,
+        boolean dryRun
+) {
+    boolean matches(ConsumerRecord<String, String> record) {
+        if (fromMillis != null && record.timestamp() < fromMillis) {
+            return false;
+        }
+        if (toMillis != null && record.timestamp() > toMillis) {
+            return false;
+        }
+        if (projectId != null && !projectId.equals(header(record, DeadLetterPublisher.PROJECT_ID_HEADER))) {
+            return false;
+        }
+        return errorType == null || errorType.name().equals(header(record, DeadLetterPublisher.ERROR_TYPE_HEADER));
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.beta.notifierservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * One bulkhead per delivery destination (webhook host, or channel type for channels without
+ * one): app.delivery.max-per-host permits, shared by first attempts, batches and retries, so a
+ * single customer endpoint can only use its own slice of capacity. A host's bulkhead is dropped
+ * once it has not been used for app.delivery.host-idle-ms, so one-off hosts do not pile up.
+ */
+@Component
+public class BulkheadRegistry {
+
+    @Value("${app.delivery.max-per-host:16}")
+    private int maxPerHost;
+
+    // Far longer than any delivery holds a permit, so a bulkhead is not dropped while in use
+    @Value("${app.delivery.host-idle-ms:600000}")
+    private long idleMillis;
+
+    private Cache<String, Semaphore> hostPermits;
+
+    @PostConstruct
+    void init() {
+        hostPermits = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(idleMillis))
+                .build();
+    }
+
+    Semaphore forDestination(String destination) {
+        return hostPermits.get(destination, host -> new Semaphore(maxPerHost));
+    }
+
+    long trackedHosts() {
+        return hostPermits.estimatedSize();
+    }
+}
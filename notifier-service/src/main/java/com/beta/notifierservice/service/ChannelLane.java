@@ -0,0 +1,172 @@
+package com.beta.notifierservice.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The delivery capacity of one channel type: its own executor, a limit on concurrent sends, a
+ * bounded number of sends waiting for that limit, and its own throughput and latency figures.
+ * "queued" counts deliveries from submission until they finish, wherever they wait; "waiting"
+ * only those waiting for a send slot, which is what the queue capacity bounds.
+ */
+public final class ChannelLane implements AutoCloseable {
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    /**
+     * Sends completed in one second. A slot is moved to a new second by swapping in a fresh
+     * counter, so no send recorded in the new second is lost to a reset.
+     */
+    private record SecondCount(long second, LongAdder count) {}
+
+    private final String channelType;
+    private final NotificationChannel channel;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    // Sends completed in each of the last RATE_WINDOW_SECONDS seconds, one slot per second
+    private final AtomicReferenceArray<SecondCount> seconds = new AtomicReferenceArray<>(RATE_WINDOW_SECONDS);
+
+    ChannelLane(String channelType, NotificationChannel channel, int maxConcurrency, int queueCapacity) {
+        this.channelType = channelType;
+        this.channel = channel;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("channel-" + channelType + "-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+        for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+            seconds.set(slot, new SecondCount(-1, new LongAdder()));
+        }
+    }
+
+    public NotificationChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Run a delivery on the lane's executor, counting it as queued until it finishes.
+     */
+    <T> Future<T> submit(Callable<T> delivery) {
+        queued.incrementAndGet();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return delivery.call();
+                } finally {
+                    queued.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for a permit of the destination's bulkhead and then a send slot, or return false
+     * straight away if the queue of waiting sends is full. The host permit comes first, so sends
+     * queued behind a saturated host do not hold slots other hosts could use.
+     */
+    boolean acquire(Semaphore hostLimit) throws InterruptedException {
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            hostLimit.acquire();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                hostLimit.release();
+                throw e;
+            }
+            return true;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void release(Semaphore hostLimit) {
+        permits.release();
+        hostLimit.release();
+    }
+
+    void record(boolean success, long latencyNanos) {
+        (success ? delivered : failed).increment();
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        totalLatencyMillis.add(latencyMillis);
+        maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+
+        long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        SecondCount current = seconds.get(slot);
+        while (current.second() < second) {
+            // Whoever loses the swap counts in the winner's fresh counter
+            seconds.compareAndSet(slot, current, new SecondCount(second, new LongAdder()));
+            current = seconds.get(slot);
+        }
+        current.count().increment();
+    }
+
+    /**
+     * Sends completed per second over the last minute.
+     */
+    double throughputPerSecond() {
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long total = 0;
+        for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+            SecondCount count = seconds.get(slot);
+            if (now - count.second() < RATE_WINDOW_SECONDS) {
+                total += count.count().sum();
+            }
+        }
+        return (double) total / RATE_WINDOW_SECONDS;
+    }
+
+    Map<String, Object> getStats() {
+        long completed = delivered.sum() + failed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("inFlight", maxConcurrency - permits.availablePermits());
+        stats.put("queued", queued.get());
+        stats.put("waiting", waiting.get());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("delivered", delivered.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("throughputPerSecond", throughputPerSecond());
+        stats.put("avgLatencyMillis", completed > 0 ? totalLatencyMillis.sum() / completed : 0);
+        stats.put("maxLatencyMillis", maxLatencyMillis.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelLane[" + channelType + "]";
+    }
+}
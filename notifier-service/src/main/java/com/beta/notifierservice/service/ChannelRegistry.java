@@ -0,0 +1,69 @@
+package com.beta.notifierservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The notification channels by type, built once at startup, each with its own
+ * {@link ChannelLane}. A lane's limits are app.channels.&lt;type&gt;.max-concurrency (default
+ * app.delivery.max-concurrency) and app.channels.&lt;type&gt;.queue-capacity (default
+ * app.channels.queue-capacity), so a slow channel uses up only its own capacity.
+ */
+@Component
+@Slf4j
+public class ChannelRegistry {
+
+    private final Map<String, ChannelLane> lanes;
+
+    public ChannelRegistry(List<NotificationChannel> channels, Environment environment) {
+        int defaultConcurrency = environment.getProperty("app.delivery.max-concurrency", Integer.class, 64);
+        int defaultQueueCapacity = environment.getProperty("app.channels.queue-capacity", Integer.class, 10000);
+        Map<String, ChannelLane> byType = new HashMap<>();
+        for (NotificationChannel channel : channels) {
+            String type = channel.getChannelType();
+            int maxConcurrency = environment.getProperty("app.channels." + type + ".max-concurrency", Integer.class, defaultConcurrency);
+            int queueCapacity = environment.getProperty("app.channels." + type + ".queue-capacity", Integer.class, defaultQueueCapacity);
+            ChannelLane previous = byType.put(type, new ChannelLane(type, channel, maxConcurrency, queueCapacity));
+            if (previous != null) {
+                throw new IllegalStateException("Two notification channels have type " + type + ": "
+                        + previous.channel().getClass().getName() + " and " + channel.getClass().getName());
+            }
+            log.info("Registered {} channel: maxConcurrency={}, queueCapacity={}", type, maxConcurrency, queueCapacity);
+        }
+        this.lanes = Map.copyOf(byType);
+    }
+
+    /**
+     * The channel for a type, or null if there is none.
+     */
+    public NotificationChannel find(String channelType) {
+        ChannelLane lane = channelType != null ? lanes.get(channelType) : null;
+        return lane != null ? lane.channel() : null;
+    }
+
+    ChannelLane lane(String channelType) {
+        ChannelLane lane = lanes.get(channelType);
+        if (lane == null) {
+            throw new IllegalArgumentException("Channel not supported: " + channelType);
+        }
+        return lane;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        lanes.forEach((type, lane) -> stats.put(type, lane.getStats()));
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.values().forEach(ChannelLane::close);
+    }
+}
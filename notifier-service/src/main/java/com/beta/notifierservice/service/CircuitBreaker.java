@@ -0,0 +1,125 @@
+package com.beta.notifierservice.service;
+
+/**
+ * Circuit breaker for one delivery endpoint, over a rolling window of its most recent calls.
+ * It opens when the share of failed calls, or of calls slower than the slow-call threshold,
+ * reaches its limit once the window has enough calls. After the open period it lets a few
+ * trial calls through: if they all succeed it closes, and any failure opens it again.
+ * <p>
+ * Times are nanoTime values, passed in so the breaker can be driven by a test clock.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    record Settings(int windowSize, int minimumCalls, int failureRatePercent, long slowCallNanos,
+                    int slowCallRatePercent, long openNanos, int halfOpenCalls) {}
+
+    private final Settings settings;
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int calls;
+    private int next;
+    private int failures;
+    private int slow;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(Settings settings) {
+        this.settings = settings;
+        this.failedCalls = new boolean[settings.windowSize()];
+        this.slowCalls = new boolean[settings.windowSize()];
+    }
+
+    /**
+     * Whether a call may go ahead now. A permitted call must be reported to {@link #onResult}
+     * or, if it never happens, to {@link #release}.
+     */
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < settings.openNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= settings.halfOpenCalls()) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Give back a permit whose call was not made.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    synchronized void onResult(boolean success, long latencyNanos, long now) {
+        boolean slowCall = latencyNanos >= settings.slowCallNanos();
+        if (state == State.HALF_OPEN) {
+            if (!success || slowCall) {
+                open(now);
+            } else if (++trialsSucceeded >= settings.halfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call permitted before the breaker opened
+            return;
+        }
+
+        if (calls == settings.windowSize()) {
+            failures -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failedCalls[next] = !success;
+        slowCalls[next] = slowCall;
+        failures += success ? 0 : 1;
+        slow += slowCall ? 1 : 0;
+        next = (next + 1) % settings.windowSize();
+
+        if (calls >= settings.minimumCalls()
+                && (failures * 100 >= settings.failureRatePercent() * calls
+                    || slow * 100 >= settings.slowCallRatePercent() * calls)) {
+            open(now);
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * How long until an open breaker lets trial calls through, in nanoseconds.
+     */
+    synchronized long remainingOpenNanos(long now) {
+        return state == State.OPEN ? Math.max(0, settings.openNanos() - (now - openedAt)) : 0;
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        next = 0;
+        failures = 0;
+        slow = 0;
+    }
+}
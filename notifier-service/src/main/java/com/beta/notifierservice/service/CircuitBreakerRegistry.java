@@ -0,0 +1,75 @@
+package com.beta.notifierservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link CircuitBreaker} per delivery destination (webhook host, or channel type for
+ * channels without one), shared by first attempts and retries. A breaker is dropped once its
+ * destination has not been called for app.circuit-breaker.idle-ms.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    @Value("${app.circuit-breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${app.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    @Value("${app.circuit-breaker.failure-rate-percent:50}")
+    private int failureRatePercent;
+
+    @Value("${app.circuit-breaker.slow-call-ms:3000}")
+    private long slowCallMillis;
+
+    @Value("${app.circuit-breaker.slow-call-rate-percent:80}")
+    private int slowCallRatePercent;
+
+    @Value("${app.circuit-breaker.open-ms:30000}")
+    private long openMillis;
+
+    @Value("${app.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    // Longer than open-ms, so an open breaker is not dropped before it would let calls through
+    @Value("${app.circuit-breaker.idle-ms:600000}")
+    private long idleMillis;
+
+    private CircuitBreaker.Settings settings;
+    private Cache<String, CircuitBreaker> breakers;
+
+    @PostConstruct
+    void init() {
+        settings = new CircuitBreaker.Settings(windowSize, Math.min(minimumCalls, windowSize), failureRatePercent,
+                TimeUnit.MILLISECONDS.toNanos(slowCallMillis), slowCallRatePercent,
+                TimeUnit.MILLISECONDS.toNanos(openMillis), halfOpenCalls);
+        breakers = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(Math.max(idleMillis, openMillis)))
+                .build();
+    }
+
+    CircuitBreaker forDestination(String destination) {
+        return breakers.get(destination, key -> new CircuitBreaker(settings));
+    }
+
+    public Map<String, Object> getStats() {
+        List<String> open = breakers.asMap().entrySet().stream()
+                .filter(entry -> entry.getValue().state() != CircuitBreaker.State.CLOSED)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        return Map.of(
+                "trackedDestinations", breakers.estimatedSize(),
+                "openOrHalfOpen", open
+        );
+    }
+}
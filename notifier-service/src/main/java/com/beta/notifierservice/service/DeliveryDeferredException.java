@@ -0,0 +1,12 @@
+package com.beta.notifierservice.service;
+
+/**
+ * Thrown by a channel that did not attempt a delivery because its destination's circuit breaker
+ * is open or its bulkhead is full, so the caller defers the delivery rather than failing it.
+ */
+public class DeliveryDeferredException extends RuntimeException {
+
+    public DeliveryDeferredException(String message) {
+        super(message);
+    }
+}
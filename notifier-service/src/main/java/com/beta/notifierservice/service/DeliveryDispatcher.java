@@ -0,0 +1,200 @@
+package com.beta.notifierservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers one notification to all of its recipients concurrently, one virtual thread per
+ * recipient on its channel's {@link ChannelLane}. A delivery holds a permit from its destination
+ * host's bulkhead, so a single customer endpoint can only use its own slice of capacity, plus a
+ * permit from its channel's concurrency limit, so a slow channel cannot hold the capacity of the
+ * others. Deliveries wait for both in their channel's bounded queue. Deliveries to a host whose
+ * circuit breaker is open, or that find their channel's queue full, are not attempted but
+ * deferred to the retry queue. Batched deliveries only wait for their batch; the channel sends
+ * each batch under the host's bulkhead and breaker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryDispatcher {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final ChannelRegistry channels;
+
+    private final LongAdder deferred = new LongAdder();
+
+    /**
+     * Outcome of delivering one notification. Deferred recipients were not attempted.
+     */
+    public record DeliveryResult(int delivered, List<String> failedRecipients, List<String> deferredRecipients) {
+        public int failed() {
+            return failedRecipients.size();
+        }
+
+        public int deferred() {
+            return deferredRecipients.size();
+        }
+
+        /**
+         * The recipients still to be delivered to.
+         */
+        public List<String> undelivered() {
+            List<String> undelivered = new ArrayList<>(failedRecipients);
+            undelivered.addAll(deferredRecipients);
+            return undelivered;
+        }
+
+        public String status() {
+            if (failedRecipients.isEmpty() && deferredRecipients.isEmpty()) {
+                return "DELIVERED";
+            }
+            return delivered == 0 ? "FAILED" : "PARTIALLY_DELIVERED";
+        }
+    }
+
+    private enum Outcome { DELIVERED, FAILED, DEFERRED }
+
+    /**
+     * Send to every recipient and wait until all deliveries have finished.
+     */
+    public DeliveryResult deliver(NotificationChannel channel, List<String> recipients, String message, String title,
+                                  Map<String, Object> config) {
+        ChannelLane lane = channels.lane(channel.getChannelType());
+        String destination = destinationOf(channel, config);
+        Semaphore hostLimit = bulkheads.forDestination(destination);
+        CircuitBreaker breaker = circuitBreakers.forDestination(destination);
+        // Per-recipient permits would cap how many payloads join a batch, so the batch takes them instead
+        boolean batched = channel.batches(config);
+
+        List<Future<Outcome>> deliveries = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            deliveries.add(lane.submit(() -> batched
+                    ? deliverBatched(channel, lane, recipient, message, title, config, breaker)
+                    : deliverOne(channel, lane, recipient, message, title, config, hostLimit, breaker)));
+        }
+
+        int delivered = 0;
+        List<String> failedRecipients = new ArrayList<>();
+        List<String> deferredRecipients = new ArrayList<>();
+        for (int i = 0; i < deliveries.size(); i++) {
+            try {
+                switch (deliveries.get(i).get()) {
+                    case DELIVERED -> delivered++;
+                    case DEFERRED -> deferredRecipients.add(recipients.get(i));
+                    case FAILED -> {
+                        failedRecipients.add(recipients.get(i));
+                        log.warn("Failed to send notification to recipient: {}", recipients.get(i));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedRecipients.add(recipients.get(i));
+            } catch (ExecutionException e) {
+                failedRecipients.add(recipients.get(i));
+                log.warn("Failed to send notification to recipient: {}", recipients.get(i), e.getCause());
+            }
+        }
+        if (!deferredRecipients.isEmpty()) {
+            deferred.add(deferredRecipients.size());
+            log.warn("Deferred {} deliveries to {}: circuit open or channel queue full", deferredRecipients.size(), destination);
+        }
+        return new DeliveryResult(delivered, failedRecipients, deferredRecipients);
+    }
+
+    private Outcome deliverOne(NotificationChannel channel, ChannelLane lane, String recipient, String message, String title,
+                               Map<String, Object> config, Semaphore hostLimit, CircuitBreaker breaker)
+            throws InterruptedException {
+        // Do not queue behind a host that is known to be down
+        if (isOpen(breaker)) {
+            return Outcome.DEFERRED;
+        }
+        // Wait in the lane's bounded queue for a permit of the host and then a send slot
+        if (!lane.acquire(hostLimit)) {
+            return Outcome.DEFERRED;
+        }
+        try {
+            // The breaker may have opened while this delivery waited
+            if (!breaker.tryAcquire(System.nanoTime())) {
+                return Outcome.DEFERRED;
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                success = channel.send(recipient, message, title, config);
+            } finally {
+                long end = System.nanoTime();
+                breaker.onResult(success, end - start, end);
+                lane.record(success, end - start);
+            }
+            return success ? Outcome.DELIVERED : Outcome.FAILED;
+        } finally {
+            lane.release(hostLimit);
+        }
+    }
+
+    /**
+     * Add the payload to its batch and wait for the batch to be sent. The channel reports a batch
+     * that it did not send, because the breaker opened, as deferred.
+     */
+    private Outcome deliverBatched(NotificationChannel channel, ChannelLane lane, String recipient, String message,
+                                   String title, Map<String, Object> config, CircuitBreaker breaker) {
+        if (isOpen(breaker)) {
+            return Outcome.DEFERRED;
+        }
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = channel.send(recipient, message, title, config);
+        } catch (DeliveryDeferredException e) {
+            return Outcome.DEFERRED;
+        } catch (RuntimeException e) {
+            lane.record(false, System.nanoTime() - start);
+            throw e;
+        }
+        lane.record(success, System.nanoTime() - start);
+        return success ? Outcome.DELIVERED : Outcome.FAILED;
+    }
+
+    private static boolean isOpen(CircuitBreaker breaker) {
+        return breaker.state() == CircuitBreaker.State.OPEN && breaker.remainingOpenNanos(System.nanoTime()) > 0;
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "trackedHosts", bulkheads.trackedHosts(),
+                "deferred", deferred.sum()
+        );
+    }
+
+    /**
+     * The host a delivery goes to, or the channel type for channels without a URL.
+     */
+    static String destinationOf(NotificationChannel channel, Map<String, Object> config) {
+        String host = config != null && config.get("url") instanceof String url ? hostOf(url) : null;
+        return host != null ? host : channel.getChannelType();
+    }
+
+    /**
+     * The lower-cased host of a URL, or null if it has none.
+     */
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : null;
+        } catch (IllegalArgumentException e) {
+            // Not a valid URL; the channel reports the failure when it sends
+            return null;
+        }
+    }
+}
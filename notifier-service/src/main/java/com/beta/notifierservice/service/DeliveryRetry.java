@@ -0,0 +1,26 @@
+package com.beta.notifierservice.service;
+
+import java.util.Map;
+
+/**
+ * One failed delivery to one recipient, queued for another attempt. {@code attempt} is the
+ * number of the attempt this entry will make; the first delivery was attempt 1.
+ */
+public record DeliveryRetry(
+        String retryId,
+        String notificationId,
+        String projectId,
+        String channel,
+        String recipient,
+        String message,
+        String title,
+        Map<String, Object> channelConfig,
+        int attempt,
+        int maxAttempts,
+        String lastError
+) {
+    DeliveryRetry next(String error) {
+        return new DeliveryRetry(retryId, notificationId, projectId, channel, recipient, message, title,
+                channelConfig, attempt + 1, maxAttempts, error);
+    }
+}
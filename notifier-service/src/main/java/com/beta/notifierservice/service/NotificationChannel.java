@@ -6,4 +6,12 @@ public interface NotificationChannel {
     String getChannelType();
     boolean send(String recipient, String message, String title, Map<String, Object> config);
     boolean supports(String channelType);
+
+    /**
+     * Whether sends with this config are queued and coalesced by the channel, so callers
+     * waiting on them are not holding a request.
+     */
+    default boolean batches(Map<String, Object> config) {
+        return false;
+    }
 }
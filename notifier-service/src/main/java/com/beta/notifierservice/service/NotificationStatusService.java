@@ -1,7 +1,9 @@
 package com.beta.notifierservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -11,6 +13,7 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class NotificationStatusService {
     private static final String STATUS_KEY_PREFIX = "notification:status:";
+    private static final String REPLAY_KEY_SUFFIX = ":replayed";
     private static final int NOTIFICATION_TTL_DAYS = 30;
 
     private final RedisTemplate<String, String> redisTemplate;
@@ -18,6 +21,32 @@ public class NotificationStatusService {
     public void save(String notificationId, Map<String, Object> data) {
         redisTemplate.opsForValue().set(STATUS_KEY_PREFIX + notificationId, data.toString(), NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
     }
+
+    /**
+     * Save many statuses, keyed by notification ID, in a single pipelined round trip. Replayed
+     * dead letters are added to a hash of counters beside each status, e.g. delivered and failed,
+     * so a replay of some recipients never replaces the status of the whole notification.
+     */
+    public void saveAll(Map<String, Map<String, Object>> statuses, Map<String, Map<String, Long>> replays) {
+        if (statuses.isEmpty() && replays.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                statuses.forEach((notificationId, data) -> ops.opsForValue().set(
+                        STATUS_KEY_PREFIX + notificationId, data.toString(), NOTIFICATION_TTL_DAYS, TimeUnit.DAYS));
+                replays.forEach((notificationId, counts) -> {
+                    String replayKey = STATUS_KEY_PREFIX + notificationId + REPLAY_KEY_SUFFIX;
+                    counts.forEach((field, count) -> ops.opsForHash().increment(replayKey, field, count));
+                    ops.expire(replayKey, NOTIFICATION_TTL_DAYS, TimeUnit.DAYS);
+                });
+                return null;
+            }
+        });
+    }
 }
 
 
@@ -0,0 +1,420 @@
+package com.beta.notifierservice.service;
+
+import com.beta.notifierservice.kafka.DeadLetterPublisher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable delay queue for failed deliveries. Each retry is a member of a Redis sorted set
+ * scored by the time it is due, so retries survive restarts and are shared by every notifier
+ * instance. A poller claims due retries and runs them on a worker pool of its own, apart from
+ * the consumer, so a slow or failing endpoint never holds up first attempts.
+ * <p>
+ * Claiming a retry pushes its score out by a lease instead of removing it; it is only removed
+ * once the attempt has finished. A retry whose instance dies mid-attempt is picked up again
+ * when the lease runs out. A retry that runs out of attempts goes to the dead-letter topic.
+ * While the destination's circuit breaker is open, due retries are pushed back to when it
+ * lets calls through again, without using up an attempt. A retry also holds a permit of the
+ * destination's bulkhead, the same one first attempts use; if none frees up within
+ * app.retry.bulkhead-wait-ms the retry is pushed back a little instead, so one slow endpoint
+ * cannot tie up every retry worker. A batched retry joins a batch, which takes the permit and
+ * reports to the breaker for it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RetryScheduler {
+
+    private static final String RETRY_QUEUE_KEY = "delivery:retry";
+
+    /**
+     * Take up to ARGV[2] retries due by ARGV[1] and lease them until ARGV[3].
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+            for _, member in ipairs(due) do
+                redis.call('ZADD', KEYS[1], ARGV[3], member)
+            end
+            return due
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChannelRegistry channelRegistry;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    @Value("${app.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.retry.workers:4}")
+    private int workerCount;
+
+    @Value("${app.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.retry.base-delay-ms:1000}")
+    private long baseDelayMillis;
+
+    @Value("${app.retry.max-delay-ms:300000}")
+    private long maxDelayMillis;
+
+    @Value("${app.retry.poll-interval-ms:500}")
+    private long pollIntervalMillis;
+
+    @Value("${app.retry.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${app.retry.bulkhead-wait-ms:100}")
+    private long bulkheadWaitMillis;
+
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder attempted = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "delivery-retry-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("delivery-retry-poller").daemon().factory());
+        if (enabled) {
+            poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        log.info("Delivery retry scheduler started: enabled={}, workers={}, maxAttempts={}", enabled, workerCount, maxAttempts);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished retries stay leased in Redis and are claimed again once the lease runs out
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queue the recipients whose first delivery failed, or was deferred without being attempted.
+     * A "retries" value in the channel config lowers the number of retries, up to
+     * app.retry.max-attempts in total. Deferred recipients are queued for their first attempt, so
+     * they still get every one. When there is nothing to retry with, the recipients are
+     * dead-lettered straight away: failed ones as DELIVERY_EXHAUSTED after their one attempt, when
+     * the config allows no retries or retrying is disabled, and deferred ones as DELIVERY_DEFERRED,
+     * only when retrying is disabled.
+     *
+     * @return the number of retries queued
+     * @throws CompletionException if the recipients could not be dead-lettered
+     */
+    public int scheduleRetries(String notificationId, String projectId, String channel, String message, String title,
+                               Map<String, Object> channelConfig, List<String> failedRecipients,
+                               List<String> deferredRecipients, String error) {
+        if (failedRecipients.isEmpty() && deferredRecipients.isEmpty()) {
+            return 0;
+        }
+        int attempts = maxAttemptsFor(channelConfig);
+        double dueAt = System.currentTimeMillis() + backoffMillis(1);
+        Map<String, Double> entries = new HashMap<>();
+        List<CompletableFuture<?>> deadLetters = new ArrayList<>();
+        int exhaustedNow = 0;
+        for (String recipient : failedRecipients) {
+            if (enabled && attempts >= 2) {
+                entries.put(serialize(new DeliveryRetry(UUID.randomUUID().toString(), notificationId, projectId, channel,
+                        recipient, message, title, channelConfig, 2, attempts, error)), dueAt);
+            } else {
+                deadLetters.add(deadLetter(new DeliveryRetry(UUID.randomUUID().toString(), notificationId, projectId, channel,
+                        recipient, message, title, channelConfig, 1, 1, error), DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED, error));
+                exhaustedNow++;
+            }
+        }
+        for (String recipient : deferredRecipients) {
+            if (enabled) {
+                entries.put(serialize(new DeliveryRetry(UUID.randomUUID().toString(), notificationId, projectId, channel,
+                        recipient, message, title, channelConfig, 1, attempts, error)), dueAt);
+            } else {
+                deadLetters.add(deadLetter(new DeliveryRetry(UUID.randomUUID().toString(), notificationId, projectId, channel,
+                        recipient, message, title, channelConfig, 0, attempts, error), DeadLetterPublisher.ErrorType.DELIVERY_DEFERRED, error));
+            }
+        }
+        if (!deadLetters.isEmpty()) {
+            CompletableFuture.allOf(deadLetters.toArray(CompletableFuture[]::new)).join();
+            exhausted.add(exhaustedNow);
+            log.warn("Dead-lettered notification {} to {} recipients without retrying: {}", notificationId, deadLetters.size(), error);
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                entries.forEach((member, dueAt) -> ops.opsForZSet().add(RETRY_QUEUE_KEY, member, dueAt));
+                return null;
+            }
+        });
+        scheduled.add(entries.size());
+        return entries.size();
+    }
+
+    int maxAttemptsFor(Map<String, Object> channelConfig) {
+        if (channelConfig != null && channelConfig.get("retries") instanceof Number retries) {
+            return Math.max(1, Math.min(retries.intValue() + 1, maxAttempts));
+        }
+        return maxAttempts;
+    }
+
+    /**
+     * Exponential backoff with jitter: the delay after the given failed attempt doubles each
+     * time, up to app.retry.max-delay-ms, and a random half of it is added on top of the other
+     * half, so retries of a burst of failures do not all land on the endpoint together.
+     */
+    long backoffMillis(int failedAttempt) {
+        long delay = baseDelayMillis << Math.min(failedAttempt - 1, 30);
+        delay = Math.min(delay, maxDelayMillis);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    void poll() {
+        try {
+            int capacity = workerCount * 2 - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            List<?> claimed = redisTemplate.execute(CLAIM_SCRIPT, List.of(RETRY_QUEUE_KEY),
+                    Long.toString(now), Integer.toString(capacity), Long.toString(now + leaseMillis));
+            if (claimed == null) {
+                return;
+            }
+            for (Object member : claimed) {
+                inFlight.incrementAndGet();
+                workers.submit(() -> {
+                    try {
+                        attempt((String) member);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("Failed to poll delivery retries", e);
+        }
+    }
+
+    void attempt(String member) {
+        DeliveryRetry retry;
+        try {
+            retry = objectMapper.readValue(member, DeliveryRetry.class);
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable delivery retry: {}", member, e);
+            redisTemplate.opsForZSet().remove(RETRY_QUEUE_KEY, member);
+            return;
+        }
+
+        NotificationChannel channel = channelRegistry.find(retry.channel());
+        String error;
+        if (channel == null) {
+            error = "Channel not supported: " + retry.channel();
+        } else if (channel.batches(retry.channelConfig())) {
+            try {
+                error = sendBatched(channel, retry);
+            } catch (DeliveryDeferredException e) {
+                park(member, backoffMillis(1));
+                return;
+            }
+        } else {
+            String destination = DeliveryDispatcher.destinationOf(channel, retry.channelConfig());
+            Semaphore hostLimit = bulkheads.forDestination(destination);
+            if (!acquire(hostLimit)) {
+                park(member, backoffMillis(1));
+                return;
+            }
+            try {
+                CircuitBreaker breaker = circuitBreakers.forDestination(destination);
+                long now = System.nanoTime();
+                if (!breaker.tryAcquire(now)) {
+                    park(member, TimeUnit.NANOSECONDS.toMillis(breaker.remainingOpenNanos(now)) + backoffMillis(1));
+                    return;
+                }
+                attempted.increment();
+                error = send(channel, retry, breaker);
+            } finally {
+                hostLimit.release();
+            }
+        }
+        if (error == null) {
+            succeeded.increment();
+            log.info("Retry {} of notification {} to {} delivered", retry.attempt(), retry.notificationId(), retry.recipient());
+            redisTemplate.opsForZSet().remove(RETRY_QUEUE_KEY, member);
+            return;
+        }
+
+        if (retry.attempt() >= retry.maxAttempts()) {
+            try {
+                deadLetter(retry, DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED, error).join();
+            } catch (CompletionException e) {
+                // Still leased, so it is attempted again, and dead-lettered then, once the lease runs out
+                log.error("Failed to dead-letter notification {} to {}", retry.notificationId(), retry.recipient(), e.getCause());
+                return;
+            }
+            exhausted.increment();
+            log.warn("Giving up on notification {} to {} after {} attempts: {}",
+                    retry.notificationId(), retry.recipient(), retry.attempt(), error);
+            redisTemplate.opsForZSet().remove(RETRY_QUEUE_KEY, member);
+            return;
+        }
+
+        String next = serialize(retry.next(error));
+        long dueAt = System.currentTimeMillis() + backoffMillis(retry.attempt());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().remove(RETRY_QUEUE_KEY, member);
+                ops.opsForZSet().add(RETRY_QUEUE_KEY, next, dueAt);
+                return null;
+            }
+        });
+    }
+
+    private boolean acquire(Semaphore hostLimit) {
+        try {
+            return hostLimit.tryAcquire(bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Push a retry back without using up an attempt. It stays in the queue, so only its score changes.
+     */
+    private void park(String member, long delayMillis) {
+        parked.increment();
+        redisTemplate.opsForZSet().add(RETRY_QUEUE_KEY, member, System.currentTimeMillis() + delayMillis);
+    }
+
+    /**
+     * Dead-letter the notification as it was consumed, addressed to this recipient only, so
+     * a replay delivers it afresh.
+     */
+    private CompletableFuture<?> deadLetter(DeliveryRetry retry, DeadLetterPublisher.ErrorType errorType, String error) {
+        Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("id", retry.notificationId());
+        notification.put("projectId", retry.projectId());
+        notification.put("channel", retry.channel());
+        notification.put("message", retry.message());
+        notification.put("title", retry.title());
+        notification.put("recipients", List.of(retry.recipient()));
+        notification.put("channelConfig", retry.channelConfig());
+        String value;
+        try {
+            value = objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification is not serializable", e);
+        }
+        return deadLetterPublisher.publish(retry.projectId(), value, retry.projectId(), retry.notificationId(), retry.attempt(),
+                errorType, error);
+    }
+
+    /**
+     * Make one attempt, returning null on success or the reason it failed.
+     */
+    private String send(NotificationChannel channel, DeliveryRetry retry, CircuitBreaker breaker) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            success = channel.send(retry.recipient(), retry.message(), retry.title(), retry.channelConfig());
+            return success ? null : "Delivery failed";
+        } catch (Exception e) {
+            return e.getMessage();
+        } finally {
+            long end = System.nanoTime();
+            breaker.onResult(success, end - start, end);
+        }
+    }
+
+    /**
+     * Send through the channel's batch, which holds the host permit and reports to the breaker.
+     *
+     * @throws DeliveryDeferredException if the batch was not sent
+     */
+    private String sendBatched(NotificationChannel channel, DeliveryRetry retry) {
+        String destination = DeliveryDispatcher.destinationOf(channel, retry.channelConfig());
+        CircuitBreaker breaker = circuitBreakers.forDestination(destination);
+        long now = System.nanoTime();
+        if (breaker.state() == CircuitBreaker.State.OPEN && breaker.remainingOpenNanos(now) > 0) {
+            throw new DeliveryDeferredException("Circuit open for " + destination);
+        }
+        try {
+            boolean success = channel.send(retry.recipient(), retry.message(), retry.title(), retry.channelConfig());
+            attempted.increment();
+            return success ? null : "Delivery failed";
+        } catch (DeliveryDeferredException e) {
+            throw e;
+        } catch (Exception e) {
+            attempted.increment();
+            return e.getMessage();
+        }
+    }
+
+    private String serialize(DeliveryRetry retry) {
+        try {
+            return objectMapper.writeValueAsString(retry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Delivery retry is not serializable", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", enabled,
+                "workers", workerCount,
+                "inFlight", inFlight.get(),
+                "scheduled", scheduled.sum(),
+                "attempted", attempted.sum(),
+                "succeeded", succeeded.sum(),
+                "exhausted", exhausted.sum(),
+                "parked", parked.sum()
+        );
+    }
+}
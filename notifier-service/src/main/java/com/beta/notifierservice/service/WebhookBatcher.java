@@ -0,0 +1,114 @@
+package com.beta.notifierservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Coalesces webhook payloads bound for the same endpoint. The first payload opens a batch that
+ * is sent when it reaches its size limit or when its window closes, whichever comes first; every
+ * payload in it gets the outcome of that one request, or the sender's
+ * {@link DeliveryDeferredException} if the request was not made.
+ */
+@Slf4j
+class WebhookBatcher implements AutoCloseable {
+
+    /**
+     * Where a batch goes. Payloads for the same URL with a different secret or timeout are
+     * batched separately, since one request carries one signature.
+     */
+    record Endpoint(String url, String secret, Long timeoutMillis) {}
+
+    private static final class Batch {
+        final List<Map<String, Object>> payloads = new ArrayList<>();
+        final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+    }
+
+    private final BiFunction<Endpoint, List<Map<String, Object>>, Boolean> sender;
+    private final Map<Endpoint, Batch> openBatches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("webhook-batch-timer").daemon().factory());
+
+    WebhookBatcher(BiFunction<Endpoint, List<Map<String, Object>>, Boolean> sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Add a payload to the endpoint's open batch, returning the outcome of the request it goes out in.
+     * The result completes exceptionally with a {@link DeliveryDeferredException} if the batch was not sent.
+     */
+    CompletableFuture<Boolean> submit(Endpoint endpoint, Map<String, Object> payload, int maxSize, long windowMillis) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Batch[] full = new Batch[1];
+        openBatches.compute(endpoint, (key, batch) -> {
+            if (batch == null) {
+                batch = new Batch();
+                Batch opened = batch;
+                timer.schedule(() -> flush(endpoint, opened), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            batch.payloads.add(payload);
+            batch.results.add(result);
+            if (batch.payloads.size() >= maxSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        if (full[0] != null) {
+            send(endpoint, full[0]);
+        }
+        return result;
+    }
+
+    private void flush(Endpoint endpoint, Batch batch) {
+        // Only if the batch is still open; a full batch has already been sent
+        if (openBatches.remove(endpoint, batch)) {
+            Thread.ofVirtual().start(() -> send(endpoint, batch));
+        }
+    }
+
+    private void send(Endpoint endpoint, Batch batch) {
+        boolean success;
+        try {
+            success = sender.apply(endpoint, batch.payloads);
+        } catch (DeliveryDeferredException e) {
+            log.warn("Deferred webhook batch of {} to {}: {}", batch.payloads.size(), endpoint.url(), e.getMessage());
+            for (CompletableFuture<Boolean> result : batch.results) {
+                result.completeExceptionally(e);
+            }
+            return;
+        } catch (RuntimeException e) {
+            log.error("Failed to send webhook batch of {} to {}", batch.payloads.size(), endpoint.url(), e);
+            success = false;
+        }
+        for (CompletableFuture<Boolean> result : batch.results) {
+            result.complete(success);
+        }
+    }
+
+    int openBatchCount() {
+        return openBatches.size();
+    }
+
+    /**
+     * Send whatever is still open, so no caller is left waiting.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        for (Endpoint endpoint : List.copyOf(openBatches.keySet())) {
+            Batch batch = openBatches.remove(endpoint);
+            if (batch != null) {
+                send(endpoint, batch);
+            }
+        }
+    }
+}
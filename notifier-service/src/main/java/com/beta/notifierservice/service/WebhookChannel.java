@@ -1,19 +1,38 @@
 package com.beta.notifierservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WebhookChannel implements NotificationChannel {
     
-    private final RestTemplate restTemplate;
+    private final WebhookHttpClient webhookHttpClient;
+    private final ObjectMapper objectMapper;
+    private final WebhookSigner webhookSigner;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    
+    @Value("${app.webhook.batch.max-size:100}")
+    private int maxBatchSize;
+    
+    @Value("${app.webhook.batch.max-window-ms:1000}")
+    private long maxBatchWindowMillis;
+    
+    private final WebhookBatcher batcher = new WebhookBatcher(this::sendBatch);
     
     @Override
     public String getChannelType() {
@@ -31,40 +50,32 @@ public class WebhookChannel implements NotificationChannel {
                 return false;
             }
             
-            // Prepare webhook payload
-            Map<String, Object> payload = Map.of(
-                "recipient", recipient,
-                "message", message,
-                "title", title,
-                "timestamp", System.currentTimeMillis(),
-                "channel", "webhook"
-            );
-            
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            // Prepare webhook payload; not Map.of, which rejects a missing title
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("recipient", recipient);
+            payload.put("message", message);
+            payload.put("title", title);
+            payload.put("timestamp", System.currentTimeMillis());
+            payload.put("channel", "webhook");
             
-            if (secret != null) {
-                // Add signature header if secret is provided
-                String signature = generateSignature(payload, secret);
-                headers.set("X-Webhook-Signature", signature);
+            Long timeout = config.get("timeout") instanceof Number number ? number.longValue() : null;
+            WebhookBatcher.Endpoint endpoint = new WebhookBatcher.Endpoint(webhookUrl, secret, timeout);
+            if (batches(config)) {
+                // Wait for the batch this payload goes out in
+                return batcher.submit(endpoint, payload, batchSize(config), batchWindowMillis(config)).join();
             }
             
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-            
-            // Send webhook
-            ResponseEntity<String> response = restTemplate.exchange(
-                webhookUrl,
-                HttpMethod.POST,
-                request,
-                String.class
-            );
-            
-            boolean success = response.getStatusCode().is2xxSuccessful();
+            boolean success = post(endpoint, payload);
             log.info("Webhook sent to {}: {}", webhookUrl, success ? "SUCCESS" : "FAILED");
             
             return success;
             
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DeliveryDeferredException deferred) {
+                throw deferred;
+            }
+            log.error("Failed to send webhook notification to {}", recipient, e.getCause());
+            return false;
         } catch (Exception e) {
             log.error("Failed to send webhook notification to {}", recipient, e);
             return false;
@@ -76,8 +87,82 @@ public class WebhookChannel implements NotificationChannel {
         return "webhook".equals(channelType);
     }
     
-    private String generateSignature(Map<String, Object> payload, String secret) {
-        // Simple signature generation - in production, use proper HMAC
-        return "sha256=" + payload.hashCode() + secret.hashCode();
+    /**
+     * Batching is opt-in per project with "batch": true in the webhook config. "batchSize" and
+     * "batchWindowMs" tune it, within the app.webhook.batch limits.
+     */
+    @Override
+    public boolean batches(Map<String, Object> config) {
+        return config != null && Boolean.TRUE.equals(config.get("batch"));
+    }
+    
+    int batchSize(Map<String, Object> config) {
+        int size = config.get("batchSize") instanceof Number number ? number.intValue() : maxBatchSize;
+        return Math.max(1, Math.min(size, maxBatchSize));
+    }
+    
+    long batchWindowMillis(Map<String, Object> config) {
+        long window = config.get("batchWindowMs") instanceof Number number ? number.longValue() : 50;
+        return Math.max(1, Math.min(window, maxBatchWindowMillis));
+    }
+    
+    /**
+     * Send a batch as one POST whose body is the array of payloads, signed once. The POST waits
+     * for one permit of the host's bulkhead and counts as one call of its circuit breaker; if the
+     * breaker does not let it through, the batch is not sent and its deliveries are deferred.
+     */
+    private boolean sendBatch(WebhookBatcher.Endpoint endpoint, List<Map<String, Object>> payloads) {
+        String host = DeliveryDispatcher.hostOf(endpoint.url());
+        String destination = host != null ? host : getChannelType();
+        Semaphore hostLimit = bulkheads.forDestination(destination);
+        try {
+            hostLimit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryDeferredException("Interrupted while waiting for the bulkhead of " + destination);
+        }
+        try {
+            CircuitBreaker breaker = circuitBreakers.forDestination(destination);
+            if (!breaker.tryAcquire(System.nanoTime())) {
+                throw new DeliveryDeferredException("Circuit open for " + destination);
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                success = post(endpoint, payloads);
+            } finally {
+                long end = System.nanoTime();
+                breaker.onResult(success, end - start, end);
+            }
+            log.info("Webhook batch of {} sent to {}: {}", payloads.size(), endpoint.url(), success ? "SUCCESS" : "FAILED");
+            return success;
+        } finally {
+            hostLimit.release();
+        }
+    }
+    
+    private boolean post(WebhookBatcher.Endpoint endpoint, Object payload) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook payload is not serializable", e);
+        }
+        
+        // Set headers
+        Map<String, String> headers = new HashMap<>();
+        
+        if (endpoint.secret() != null) {
+            // Add signature header if secret is provided, over exactly the bytes sent
+            headers.put("X-Webhook-Signature", webhookSigner.sign(endpoint.secret(), body));
+        }
+        
+        int status = webhookHttpClient.post(endpoint.url(), body, headers, endpoint.timeoutMillis());
+        return status >= 200 && status < 300;
+    }
+    
+    @PreDestroy
+    void flushBatches() {
+        batcher.close();
     }
 }
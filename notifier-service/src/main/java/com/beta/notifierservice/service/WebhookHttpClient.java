@@ -0,0 +1,124 @@
+package com.beta.notifierservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Posts webhook payloads over the shared HTTP client. Every request is bounded by a timeout
+ * that covers the whole exchange, not just the response headers, and response bodies are
+ * discarded as they arrive instead of being buffered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookHttpClient {
+
+    private final HttpClient httpClient;
+
+    @Value("${app.webhook.request-timeout-ms:5000}")
+    private long requestTimeoutMillis;
+
+    @Value("${app.webhook.max-request-timeout-ms:30000}")
+    private long maxRequestTimeoutMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    /**
+     * POST the body and return the response status, or -1 if no response arrived in time or
+     * the request failed.
+     *
+     * @param timeoutMillis timeout for this endpoint, or null for the default; capped at
+     *                      app.webhook.max-request-timeout-ms
+     */
+    public int post(String url, byte[] body, Map<String, String> headers, Long timeoutMillis) {
+        Duration timeout = Duration.ofMillis(timeoutFor(timeoutMillis));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(builder::header);
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> response =
+                httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding());
+        try {
+            int status = response.get(timeout.toMillis(), TimeUnit.MILLISECONDS).statusCode();
+            if (status < 200 || status >= 300) {
+                failures.increment();
+            }
+            return status;
+        } catch (TimeoutException e) {
+            // Cancelling aborts the exchange so a slow body does not keep the connection busy
+            response.cancel(true);
+            timeouts.increment();
+            log.warn("Webhook to {} timed out after {}ms", url, timeout.toMillis());
+            return -1;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                timeouts.increment();
+                log.warn("Webhook to {} timed out after {}ms", url, timeout.toMillis());
+            } else {
+                errors.increment();
+                log.warn("Webhook to {} failed: {}", url, String.valueOf(e.getCause()));
+            }
+            return -1;
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            errors.increment();
+            return -1;
+        } finally {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            requests.increment();
+            totalLatencyMillis.add(latencyMillis);
+            maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    long timeoutFor(Long timeoutMillis) {
+        if (timeoutMillis == null || timeoutMillis <= 0) {
+            return requestTimeoutMillis;
+        }
+        return Math.min(timeoutMillis, maxRequestTimeoutMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        long count = requests.sum();
+        return Map.of(
+                "inFlightRequests", inFlight.get(),
+                "peakInFlightRequests", peakInFlight.get(),
+                "requests", count,
+                "failedResponses", failures.sum(),
+                "errors", errors.sum(),
+                "timeouts", timeouts.sum(),
+                "avgLatencyMillis", count > 0 ? totalLatencyMillis.sum() / count : 0,
+                "maxLatencyMillis", maxLatencyMillis.get()
+        );
+    }
+}
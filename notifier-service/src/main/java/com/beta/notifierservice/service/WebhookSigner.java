@@ -0,0 +1,65 @@
+package com.beta.notifierservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HMAC-SHA256 signatures over webhook bodies, sent as {@code sha256=<hex>}. Initialising a
+ * {@link Mac} with a key costs more than signing a small body, so each secret keeps a pool of
+ * initialised instances; deliveries run on short-lived virtual threads, so a thread-local
+ * cache would never be reused.
+ */
+@Component
+public class WebhookSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_IDLE_PER_SECRET = 32;
+
+    @Value("${app.webhook.signer.max-secrets:10000}")
+    private int maxSecrets;
+
+    private final Map<String, Queue<Mac>> macsBySecret = new ConcurrentHashMap<>();
+
+    public String sign(String secret, byte[] body) {
+        Queue<Mac> idle = macsBySecret.get(secret);
+        if (idle == null) {
+            if (macsBySecret.size() >= maxSecrets) {
+                // Rarely reached; dropping the pools only costs re-initialising them
+                macsBySecret.clear();
+            }
+            idle = macsBySecret.computeIfAbsent(secret, key -> new ConcurrentLinkedQueue<>());
+        }
+        Mac mac = idle.poll();
+        if (mac == null) {
+            mac = newMac(secret);
+        }
+        try {
+            // doFinal resets the Mac, so it is ready for the next body
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(body));
+        } finally {
+            if (idle.size() < MAX_IDLE_PER_SECRET) {
+                idle.offer(mac);
+            }
+        }
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create " + ALGORITHM + " signer", e);
+        }
+    }
+}
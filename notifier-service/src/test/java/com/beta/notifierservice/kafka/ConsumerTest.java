@@ -0,0 +1,239 @@
+package com.beta.notifierservice.kafka;
+
+import com.beta.notifierservice.service.ChannelRegistry;
+import com.beta.notifierservice.service.DeliveryDispatcher;
+import com.beta.notifierservice.service.NotificationChannel;
+import com.beta.notifierservice.service.NotificationStatusService;
+import com.beta.notifierservice.service.RetryScheduler;
+import com.beta.notifierservice.service.TestBulkheads;
+import com.beta.notifierservice.service.TestCircuitBreakers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerTest {
+
+    @Mock
+    private NotificationStatusService notificationStatusService;
+
+    @Mock
+    private NotificationChannel webhookChannel;
+
+    @Mock
+    private RetryScheduler retryScheduler;
+
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+
+    private Consumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel),
+            new MockEnvironment().withProperty("app.delivery.max-concurrency", "4"));
+        DeliveryDispatcher deliveryDispatcher = new DeliveryDispatcher(TestCircuitBreakers.registry(),
+            TestBulkheads.registry(2), channelRegistry);
+        consumer = new Consumer(new ObjectMapper(), notificationStatusService, channelRegistry, deliveryDispatcher,
+            retryScheduler, deadLetterPublisher);
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String key, String value) {
+        return new ConsumerRecord<>("notifyx_test", 0, offset, key, value);
+    }
+
+    private static String notification(String id, String channel, String... recipients) {
+        return "{\"id\":\"" + id + "\",\"projectId\":\"project1\",\"channel\":\"" + channel + "\",\"message\":\"Hello\","
+            + "\"recipients\":[\"" + String.join("\",\"", recipients) + "\"],\"channelConfig\":{\"url\":\"https://example.com/hook\"}}";
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> savedStatuses() {
+        ArgumentCaptor<Map<String, Map<String, Object>>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(notificationStatusService, times(1)).saveAll(statuses.capture(), anyMap());
+        return statuses.getValue();
+    }
+
+    private static ConsumerRecord<String, String> replayed(long offset, String key, String value) {
+        ConsumerRecord<String, String> record = record(offset, key, value);
+        record.headers().add(DeadLetterReplayer.REPLAY_ID_HEADER, "replay-1".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listen_writesAllStatusesOfABatchInOneCall() {
+        // Given
+        when(webhookChannel.send(eq("user1"), anyString(), any(), anyMap())).thenReturn(true);
+        when(webhookChannel.send(eq("user2"), anyString(), any(), anyMap())).thenReturn(false);
+        when(retryScheduler.scheduleRetries(eq("n2"), eq("project1"), eq("webhook"), eq("Hello"), any(), anyMap(),
+            eq(List.of("user2")), eq(List.of()), anyString())).thenReturn(1);
+        when(deadLetterPublisher.publish(any(), eq(DeadLetterPublisher.ErrorType.PARSE_ERROR), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        List<ConsumerRecord<String, String>> records = List.of(
+            record(0, "project1", notification("n1", "webhook", "user1")),
+            record(1, "project1", notification("n2", "webhook", "user1", "user2")),
+            record(2, "project2", notification("n3", "sms", "user1")),
+            record(3, "project2", "not json"));
+
+        // When
+        consumer.listen(records);
+
+        // Then
+        Map<String, Map<String, Object>> statuses = savedStatuses();
+        assertEquals(3, statuses.size());
+        assertEquals("DELIVERED", statuses.get("n1").get("status"));
+        assertEquals("PARTIALLY_DELIVERED", statuses.get("n2").get("status"));
+        assertEquals(1, statuses.get("n2").get("delivered"));
+        assertEquals(1, statuses.get("n2").get("failed"));
+        assertEquals(2, statuses.get("n2").get("total"));
+        assertEquals(1, statuses.get("n2").get("retriesScheduled"));
+        assertEquals(0, statuses.get("n1").get("retriesScheduled"));
+        assertEquals("FAILED", statuses.get("n3").get("status"));
+        assertEquals("Channel not supported: sms", statuses.get("n3").get("errorMessage"));
+        verify(notificationStatusService, never()).save(anyString(), anyMap());
+        ArgumentCaptor<ConsumerRecord<String, String>> deadLetter = ArgumentCaptor.forClass(ConsumerRecord.class);
+        verify(deadLetterPublisher).publish(deadLetter.capture(), eq(DeadLetterPublisher.ErrorType.PARSE_ERROR), anyString());
+        assertEquals(3, deadLetter.getValue().offset());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listen_replayedDeadLetters_addToTheStatusInsteadOfReplacingIt() {
+        // Given
+        when(webhookChannel.send(eq("user1"), anyString(), any(), anyMap())).thenReturn(true);
+        when(webhookChannel.send(eq("user2"), anyString(), any(), anyMap())).thenReturn(false);
+        List<ConsumerRecord<String, String>> records = List.of(
+            replayed(0, "project1", notification("n1", "webhook", "user1")),
+            replayed(1, "project1", notification("n1", "webhook", "user2")),
+            record(2, "project1", notification("n2", "webhook", "user1")));
+
+        // When
+        consumer.listen(records);
+
+        // Then
+        ArgumentCaptor<Map<String, Map<String, Object>>> statuses = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map<String, Map<String, Long>>> replays = ArgumentCaptor.forClass(Map.class);
+        verify(notificationStatusService).saveAll(statuses.capture(), replays.capture());
+        assertEquals(Set.of("n2"), statuses.getValue().keySet());
+        Map<String, Long> counts = replays.getValue().get("n1");
+        assertEquals(2L, counts.get("replayed"));
+        assertEquals(1L, counts.get("delivered"));
+        assertEquals(1L, counts.get("failed"));
+    }
+
+    @Test
+    void addReplayCounts_countsARecordThatFailedBeforeDeliveryAsAnError() {
+        // Given
+        Map<String, Long> counts = new HashMap<>();
+
+        // When
+        Consumer.addReplayCounts(counts, Map.of("status", "FAILED", "errorMessage", "Channel not supported: sms"));
+
+        // Then
+        assertEquals(Map.of("replayed", 1L, "errors", 1L), counts);
+    }
+
+    @Test
+    void listen_keepsRecordOrderWithinAKey() {
+        // Given
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            delivered.add(invocation.getArgument(0));
+            return true;
+        });
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(record(i, "project1", notification("n" + i, "webhook", "user" + i)));
+        }
+
+        // When
+        consumer.listen(records);
+
+        // Then
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add("user" + i);
+        }
+        assertEquals(expected, delivered);
+        assertEquals(20, savedStatuses().size());
+    }
+
+    @Test
+    void listen_legacyRecordWithoutId_usesRecordKey() {
+        // Given
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(true);
+        String legacy = notification("ignored", "webhook", "user1").replace("\"id\":\"ignored\",", "");
+
+        // When
+        consumer.listen(List.of(record(0, "notification-1", legacy)));
+
+        // Then
+        assertEquals("DELIVERED", savedStatuses().get("notification-1").get("status"));
+    }
+
+    @Test
+    void listen_deadLetterFails_deliversNothing() {
+        // Given
+        when(deadLetterPublisher.publish(any(), any(), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        List<ConsumerRecord<String, String>> records = List.of(
+            record(0, "project1", notification("n1", "webhook", "user1")),
+            record(1, "project1", "not json"));
+
+        // When
+        assertThrows(RuntimeException.class, () -> consumer.listen(records));
+
+        // Then
+        verify(webhookChannel, never()).send(anyString(), anyString(), any(), anyMap());
+        verifyNoInteractions(notificationStatusService);
+    }
+
+    @Test
+    void listen_undeliverableDeadLetterFails_throws() {
+        // Given
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+        when(retryScheduler.scheduleRetries(anyString(), anyString(), anyString(), anyString(), any(), anyMap(), anyList(),
+            anyList(), anyString())).thenThrow(new CompletionException(new IllegalStateException("broker down")));
+
+        // When / Then
+        assertThrows(IllegalStateException.class,
+            () -> consumer.listen(List.of(record(0, "project1", notification("n1", "webhook", "user1")))));
+        verifyNoInteractions(notificationStatusService);
+    }
+
+    @Test
+    void listen_retrySchedulingFails_throwsSoTheBatchIsRedelivered() {
+        // Given
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+        when(retryScheduler.scheduleRetries(anyString(), anyString(), anyString(), anyString(), any(), anyMap(), anyList(),
+            anyList(), anyString())).thenThrow(new IllegalStateException("Redis connection refused"));
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> consumer.listen(List.of(record(0, "project1", notification("n1", "webhook", "user1")))));
+        assertEquals("Redis connection refused", e.getCause().getMessage());
+        verifyNoInteractions(notificationStatusService);
+    }
+}
@@ -0,0 +1,80 @@
+package com.beta.notifierservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterPublisherTest {
+
+    private static final String DLQ_TOPIC = "notifyx_test.dlq";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private DeadLetterPublisher deadLetterPublisher;
+
+    @BeforeEach
+    void setUp() {
+        deadLetterPublisher = new DeadLetterPublisher(kafkaTemplate);
+        ReflectionTestUtils.setField(deadLetterPublisher, "deadLetterTopic", DLQ_TOPIC);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConsumerRecord<String, String> publishParseError(String key, String value) {
+        deadLetterPublisher.publish(new ConsumerRecord<>("notifyx_test", 0, 7, key, value),
+                DeadLetterPublisher.ErrorType.PARSE_ERROR, "Unexpected end-of-input");
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        ProducerRecord<String, String> record = sent.getValue();
+        return new ConsumerRecord<>(record.topic(), 0, 0, 1000, TimestampType.CREATE_TIME, -1, -1,
+                record.key(), record.value(), record.headers(), Optional.empty());
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        return record.headers().lastHeader(name) != null
+                ? new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8) : null;
+    }
+
+    @Test
+    void publish_parseError_readsTheProjectFromTheTruncatedValue() {
+        // When
+        ConsumerRecord<String, String> deadLetter = publishParseError("user1",
+                "{\"id\":\"n1\",\"projectId\" : \"project1\",\"channel\":\"webhook\",\"recipients\":[\"us");
+
+        // Then
+        assertEquals("project1", header(deadLetter, DeadLetterPublisher.PROJECT_ID_HEADER));
+        assertEquals("7", header(deadLetter, DeadLetterPublisher.SOURCE_OFFSET_HEADER));
+        assertTrue(new ReplayFilter("project1", DeadLetterPublisher.ErrorType.PARSE_ERROR, null, null, 100, false)
+                .matches(deadLetter));
+    }
+
+    @Test
+    void publish_parseErrorWithoutAProject_matchesOnlyUnfilteredReplays() {
+        // When
+        ConsumerRecord<String, String> deadLetter = publishParseError("project1", "not json");
+
+        // Then
+        assertNull(header(deadLetter, DeadLetterPublisher.PROJECT_ID_HEADER));
+        assertFalse(new ReplayFilter("project1", null, null, null, 100, false).matches(deadLetter));
+        assertTrue(new ReplayFilter(null, DeadLetterPublisher.ErrorType.PARSE_ERROR, null, null, 100, false)
+                .matches(deadLetter));
+    }
+}
@@ -0,0 +1,203 @@
+package com.beta.notifierservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayerTest {
+
+    private static final String TOPIC = "notifyx_test";
+    private static final String DLQ_TOPIC = "notifyx_test.dlq";
+
+    @Mock
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private DeadLetterReplayer deadLetterReplayer;
+    private final List<ConsumerRecord<String, String>> deadLetters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        deadLetterReplayer = new DeadLetterReplayer(consumerFactory, kafkaTemplate);
+        ReflectionTestUtils.setField(deadLetterReplayer, "topic", TOPIC);
+        ReflectionTestUtils.setField(deadLetterReplayer, "deadLetterTopic", DLQ_TOPIC);
+        when(consumerFactory.createConsumer(anyString(), anyString(), isNull(), any())).thenAnswer(invocation -> mockConsumer());
+        lenient().when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    // The key and value of each record sent to the notification topic, as "key=value"
+    @SuppressWarnings("unchecked")
+    private List<String> replayed() {
+        ArgumentCaptor<ProducerRecord<String, String>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, atLeast(0)).send(records.capture());
+        List<String> sent = new ArrayList<>();
+        for (ProducerRecord<String, String> record : records.getAllValues()) {
+            assertEquals(TOPIC, record.topic());
+            assertNotNull(record.headers().lastHeader(DeadLetterReplayer.REPLAY_ID_HEADER));
+            sent.add(record.key() + "=" + record.value());
+        }
+        return sent;
+    }
+
+    private void deadLetter(int partition, long timestamp, String projectId, String errorType, String value) {
+        long offset = deadLetters.stream().filter(record -> record.partition() == partition).count();
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(DeadLetterPublisher.ERROR_TYPE_HEADER, errorType.getBytes(StandardCharsets.UTF_8));
+        if (projectId != null) {
+            headers.add(DeadLetterPublisher.PROJECT_ID_HEADER, projectId.getBytes(StandardCharsets.UTF_8));
+        }
+        deadLetters.add(new ConsumerRecord<>(DLQ_TOPIC, partition, offset, timestamp, TimestampType.CREATE_TIME,
+                -1, -1, projectId != null ? projectId : "unknown", value, headers, Optional.empty()));
+    }
+
+    // A consumer over the dead letters that serves each partition's records once it is assigned
+    private MockConsumer<String, String> mockConsumer() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void assign(Collection<TopicPartition> partitions) {
+                super.assign(partitions);
+                for (ConsumerRecord<String, String> record : deadLetters) {
+                    if (partitions.contains(new TopicPartition(record.topic(), record.partition()))) {
+                        addRecord(record);
+                    }
+                }
+            }
+
+            @Override
+            public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(Map<TopicPartition, Long> times) {
+                Map<TopicPartition, OffsetAndTimestamp> offsets = new HashMap<>();
+                times.forEach((partition, time) -> offsets.put(partition, deadLetters.stream()
+                        .filter(record -> record.partition() == partition.partition() && record.timestamp() >= time)
+                        .findFirst()
+                        .map(record -> new OffsetAndTimestamp(record.offset(), record.timestamp()))
+                        .orElse(null)));
+                return offsets;
+            }
+        };
+        List<PartitionInfo> partitions = List.of(new PartitionInfo(DLQ_TOPIC, 0, null, null, null),
+                new PartitionInfo(DLQ_TOPIC, 1, null, null, null));
+        consumer.updatePartitions(DLQ_TOPIC, partitions);
+        Map<TopicPartition, Long> beginnings = new HashMap<>();
+        Map<TopicPartition, Long> ends = new HashMap<>();
+        for (PartitionInfo info : partitions) {
+            TopicPartition partition = new TopicPartition(DLQ_TOPIC, info.partition());
+            beginnings.put(partition, 0L);
+            ends.put(partition, deadLetters.stream().filter(record -> record.partition() == info.partition()).count());
+        }
+        consumer.updateBeginningOffsets(beginnings);
+        consumer.updateEndOffsets(ends);
+        return consumer;
+    }
+
+    private Map<String, Object> replay(ReplayFilter filter) {
+        DeadLetterReplayer.ReplayJob job = deadLetterReplayer.start(filter);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while ("RUNNING".equals(job.getStatus())) {
+                Thread.sleep(10);
+            }
+        });
+        return job.toMap();
+    }
+
+    @Test
+    void replay_reinjectsEveryPartitionUnderTheOriginalKey() {
+        // Given
+        deadLetter(0, 1000, "project1", "DELIVERY_EXHAUSTED", "a");
+        deadLetter(1, 1000, "project2", "DELIVERY_EXHAUSTED", "b");
+        deadLetter(1, 2000, null, "PARSE_ERROR", "not json");
+
+        // When
+        Map<String, Object> result = replay(new ReplayFilter(null, null, null, null, 1000, false));
+
+        // Then
+        assertEquals("COMPLETED", result.get("status"));
+        assertEquals(3L, result.get("replayed"));
+        List<String> replayed = replayed();
+        assertEquals(3, replayed.size());
+        assertTrue(replayed.containsAll(List.of("project1=a", "project2=b", "unknown=not json")), replayed.toString());
+    }
+
+    @Test
+    void replay_filtersByProjectErrorTypeAndTime() {
+        // Given
+        deadLetter(0, 1000, "project1", "DELIVERY_EXHAUSTED", "too early");
+        deadLetter(0, 2000, "project1", "DELIVERY_EXHAUSTED", "match");
+        deadLetter(0, 2500, "project2", "DELIVERY_EXHAUSTED", "other project");
+        deadLetter(1, 2000, null, "PARSE_ERROR", "other type");
+        deadLetter(1, 4000, "project1", "DELIVERY_EXHAUSTED", "too late");
+
+        // When
+        Map<String, Object> result = replay(new ReplayFilter("project1", DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED,
+                1500L, 3000L, 1000, false));
+
+        // Then
+        assertEquals(1L, result.get("matched"));
+        assertEquals(1L, result.get("replayed"));
+        assertEquals(List.of("project1=match"), replayed());
+    }
+
+    @Test
+    void replay_dryRun_onlyCounts() {
+        // Given
+        deadLetter(0, 1000, "project1", "DELIVERY_EXHAUSTED", "a");
+        deadLetter(1, 1000, "project1", "DELIVERY_EXHAUSTED", "b");
+
+        // When
+        Map<String, Object> result = replay(new ReplayFilter(null, null, null, null, 1000, true));
+
+        // Then
+        assertEquals(2L, result.get("matched"));
+        assertEquals(0L, result.get("replayed"));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void replay_isPacedToTheRequestedRate() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            deadLetter(i % 2, 1000, "project1", "DELIVERY_EXHAUSTED", "n" + i);
+        }
+
+        // When
+        long start = System.nanoTime();
+        Map<String, Object> result = replay(new ReplayFilter(null, null, null, null, 50, false));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(10L, result.get("replayed"));
+        // Ten sends at 50 per second are spread over at least 180ms
+        assertTrue(elapsedMillis >= 170, "took " + elapsedMillis + "ms");
+    }
+}
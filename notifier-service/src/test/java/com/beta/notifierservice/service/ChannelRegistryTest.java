@@ -0,0 +1,215 @@
+package com.beta.notifierservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChannelRegistryTest {
+
+    @Mock
+    private NotificationChannel webhookChannel;
+
+    @Mock
+    private NotificationChannel smsChannel;
+
+    private DeliveryDispatcher dispatcher(ChannelRegistry channelRegistry) {
+        return new DeliveryDispatcher(TestCircuitBreakers.registry(), TestBulkheads.registry(), channelRegistry);
+    }
+
+    private static List<String> recipients(int count) {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipients.add("user" + i);
+        }
+        return recipients;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> laneStats(ChannelRegistry channelRegistry, String channelType) {
+        return (Map<String, Object>) channelRegistry.getStats().get(channelType);
+    }
+
+    @Test
+    void find_returnsTheChannelForItsType() {
+        // Given
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        when(smsChannel.getChannelType()).thenReturn("sms");
+
+        // When
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel, smsChannel), new MockEnvironment());
+
+        // Then
+        assertSame(webhookChannel, channelRegistry.find("webhook"));
+        assertSame(smsChannel, channelRegistry.find("sms"));
+        assertNull(channelRegistry.find("email"));
+        assertNull(channelRegistry.find(null));
+        assertThrows(IllegalArgumentException.class, () -> channelRegistry.lane("email"));
+    }
+
+    @Test
+    void constructor_duplicateChannelType_fails() {
+        // Given
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        when(smsChannel.getChannelType()).thenReturn("webhook");
+
+        // Then
+        assertThrows(IllegalStateException.class,
+                () -> new ChannelRegistry(List.of(webhookChannel, smsChannel), new MockEnvironment()));
+    }
+
+    @Test
+    void constructor_readsPerChannelLimitsWithDefaults() {
+        // Given
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        when(smsChannel.getChannelType()).thenReturn("sms");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.delivery.max-concurrency", "32")
+                .withProperty("app.channels.sms.max-concurrency", "2")
+                .withProperty("app.channels.sms.queue-capacity", "5");
+
+        // When
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel, smsChannel), environment);
+
+        // Then
+        assertEquals(32, laneStats(channelRegistry, "webhook").get("maxConcurrency"));
+        assertEquals(10000, laneStats(channelRegistry, "webhook").get("queueCapacity"));
+        assertEquals(2, laneStats(channelRegistry, "sms").get("maxConcurrency"));
+        assertEquals(5, laneStats(channelRegistry, "sms").get("queueCapacity"));
+    }
+
+    @Test
+    void deliver_slowChannel_doesNotHoldUpAnother() throws Exception {
+        // Given
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        when(smsChannel.getChannelType()).thenReturn("sms");
+        CountDownLatch release = new CountDownLatch(1);
+        when(smsChannel.send(anyString(), anyString(), any(), any())).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(true);
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel, smsChannel),
+                new MockEnvironment().withProperty("app.channels.sms.max-concurrency", "2"));
+        DeliveryDispatcher deliveryDispatcher = dispatcher(channelRegistry);
+
+        // When
+        CompletableFuture<DeliveryDispatcher.DeliveryResult> sms = CompletableFuture.supplyAsync(
+                () -> deliveryDispatcher.deliver(smsChannel, recipients(10), "Hello", null, null));
+        long start = System.nanoTime();
+        DeliveryDispatcher.DeliveryResult webhook = deliveryDispatcher.deliver(webhookChannel, recipients(10), "Hello", null,
+                Map.of("url", "https://example.com/hook"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        release.countDown();
+
+        // Then
+        assertEquals(10, webhook.delivered());
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + "ms");
+        assertEquals(10, sms.get(5, TimeUnit.SECONDS).delivered());
+        assertEquals(10L, laneStats(channelRegistry, "webhook").get("delivered"));
+        assertEquals(10L, laneStats(channelRegistry, "sms").get("delivered"));
+    }
+
+    @Test
+    void deliver_channelQueueFull_defersTheRest() {
+        // Given
+        when(smsChannel.getChannelType()).thenReturn("sms");
+        when(smsChannel.send(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return true;
+        });
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(smsChannel), new MockEnvironment()
+                .withProperty("app.channels.sms.max-concurrency", "1")
+                .withProperty("app.channels.sms.queue-capacity", "1"));
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = dispatcher(channelRegistry).deliver(smsChannel, recipients(3), "Hello", null, null);
+
+        // Then
+        // One sending and one waiting; the third finds the queue full
+        assertEquals(2, result.delivered());
+        assertEquals(1, result.deferred());
+        assertEquals(1L, laneStats(channelRegistry, "sms").get("rejected"));
+    }
+
+    @Test
+    void getStats_reportsOutcomesLatencyAndThroughput() {
+        // Given
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        when(webhookChannel.send(eq("user0"), anyString(), any(), anyMap())).thenReturn(true);
+        when(webhookChannel.send(eq("user1"), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return false;
+        });
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel), new MockEnvironment());
+
+        // When
+        dispatcher(channelRegistry).deliver(webhookChannel, recipients(2), "Hello", null, Map.of("url", "https://example.com/hook"));
+
+        // Then
+        Map<String, Object> stats = laneStats(channelRegistry, "webhook");
+        assertEquals(1L, stats.get("delivered"));
+        assertEquals(1L, stats.get("failed"));
+        assertEquals(0, stats.get("inFlight"));
+        assertTrue((long) stats.get("maxLatencyMillis") >= 50);
+        assertEquals(2.0 / 60, (double) stats.get("throughputPerSecond"), 1e-9);
+    }
+
+    @Test
+    void getStats_queuedCountsDeliveriesUntilTheyFinish() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(smsChannel.getChannelType()).thenReturn("sms");
+        when(smsChannel.send(anyString(), anyString(), any(), any())).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(smsChannel), new MockEnvironment()
+                .withProperty("app.channels.sms.max-concurrency", "2"));
+
+        // When
+        CompletableFuture<DeliveryDispatcher.DeliveryResult> sms = CompletableFuture.supplyAsync(
+                () -> dispatcher(channelRegistry).deliver(smsChannel, recipients(5), "Hello", null, null));
+        Thread.sleep(200);
+        Map<String, Object> during = laneStats(channelRegistry, "sms");
+        release.countDown();
+        sms.get(5, TimeUnit.SECONDS);
+
+        // Then
+        // Two sending and three waiting for a slot, all still queued
+        assertEquals(5, during.get("queued"));
+        assertEquals(2, during.get("inFlight"));
+        assertEquals(3, during.get("waiting"));
+        assertEquals(0, laneStats(channelRegistry, "sms").get("queued"));
+    }
+
+    @Test
+    void throughputPerSecond_countsEveryConcurrentRecord() throws Exception {
+        // Given
+        ChannelLane lane = new ChannelLane("sms", smsChannel, 1, 1);
+        List<Thread> threads = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    lane.record(true, 0);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(8000.0 / 60, lane.throughputPerSecond(), 1e-9);
+        lane.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.beta.notifierservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(new CircuitBreaker.Settings(
+            10, 4, 50, SECOND, 80, 30 * SECOND, 2));
+
+    private void calls(int count, boolean success, long latencyNanos) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(breaker.tryAcquire(0));
+            breaker.onResult(success, latencyNanos, 0);
+        }
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumCalls() {
+        calls(3, false, 0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void opensAtTheFailureRate() {
+        calls(5, true, 0);
+        calls(4, false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        calls(1, false, 0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(SECOND));
+        assertEquals(29 * SECOND, breaker.remainingOpenNanos(SECOND));
+    }
+
+    @Test
+    void opensAtTheSlowCallRate() {
+        calls(1, true, 0);
+        calls(4, true, 2 * SECOND);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void windowForgetsOldCalls() {
+        calls(4, false, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        CircuitBreaker rolling = new CircuitBreaker(new CircuitBreaker.Settings(4, 4, 75, SECOND, 100, SECOND, 1));
+        for (boolean success : new boolean[] {false, false, true, true, true, false, true}) {
+            rolling.onResult(success, 0, 0);
+        }
+
+        // The last four calls hold one failure
+        assertEquals(CircuitBreaker.State.CLOSED, rolling.state());
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopenIt() {
+        calls(4, false, 0);
+        long reopen = 30 * SECOND;
+
+        // Two trial calls are let through once the open period ends
+        assertTrue(breaker.tryAcquire(reopen));
+        assertTrue(breaker.tryAcquire(reopen));
+        assertFalse(breaker.tryAcquire(reopen));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onResult(true, 0, reopen);
+        breaker.onResult(false, 0, reopen);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        long later = reopen * 2;
+        assertTrue(breaker.tryAcquire(later));
+        assertTrue(breaker.tryAcquire(later));
+        breaker.onResult(true, 0, later);
+        breaker.onResult(true, 0, later);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void releasedTrialPermitCanBeTakenAgain() {
+        calls(4, false, 0);
+        long reopen = 30 * SECOND;
+        assertTrue(breaker.tryAcquire(reopen));
+        assertTrue(breaker.tryAcquire(reopen));
+
+        breaker.release();
+
+        assertTrue(breaker.tryAcquire(reopen));
+    }
+}
@@ -0,0 +1,206 @@
+package com.beta.notifierservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryDispatcherTest {
+
+    @Mock
+    private NotificationChannel channel;
+
+    private DeliveryDispatcher deliveryDispatcher;
+    private CircuitBreakerRegistry circuitBreakers;
+    private BulkheadRegistry bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakers = TestCircuitBreakers.registry(4, 60000);
+        when(channel.getChannelType()).thenReturn("webhook");
+        bulkheads = TestBulkheads.registry();
+        deliveryDispatcher = new DeliveryDispatcher(circuitBreakers, bulkheads,
+                new ChannelRegistry(List.of(channel), new MockEnvironment()));
+    }
+
+    private static List<String> recipients(int count) {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipients.add("user" + i);
+        }
+        return recipients;
+    }
+
+    @Test
+    void deliver_sendsToRecipientsConcurrently() {
+        // Given
+        when(channel.send(anyString(), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return true;
+        });
+
+        // When
+        long start = System.nanoTime();
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(channel, recipients(16), "Hello", null,
+                Map.of("url", "https://example.com/hook"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(16, result.delivered());
+        assertEquals("DELIVERED", result.status());
+        // Sequential delivery would take 3.2s
+        assertTrue(elapsedMillis < 1600, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void deliver_neverExceedsTheHostLimit() {
+        // Given
+        ReflectionTestUtils.setField(bulkheads, "maxPerHost", 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(channel.send(anyString(), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return true;
+        });
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(channel, recipients(30), "Hello", null,
+                Map.of("url", "https://Example.com/hook"));
+
+        // Then
+        assertEquals(30, result.delivered());
+        assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void deliver_countsFailuresAndExceptions() {
+        // Given
+        when(channel.send(eq("user0"), anyString(), any(), any())).thenReturn(true);
+        when(channel.send(eq("user1"), anyString(), any(), any())).thenReturn(false);
+        when(channel.send(eq("user2"), anyString(), any(), any())).thenThrow(new IllegalStateException("boom"));
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(channel, recipients(3), "Hello", null, null);
+
+        // Then
+        assertEquals(1, result.delivered());
+        assertEquals(2, result.failed());
+        assertEquals(List.of("user1", "user2"), result.failedRecipients());
+        assertEquals("PARTIALLY_DELIVERED", result.status());
+    }
+
+    @Test
+    void deliver_failingEndpoint_opensTheBreakerAndDefersTheRest() {
+        // Given
+        ReflectionTestUtils.setField(bulkheads, "maxPerHost", 1);
+        when(channel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(channel, recipients(20), "Hello", null,
+                Map.of("url", "https://down.example.com/hook"));
+
+        // Then
+        // One at a time, so the breaker opens after its four minimum calls
+        assertEquals(4, result.failed());
+        assertEquals(16, result.deferred());
+        verify(channel, times(4)).send(anyString(), anyString(), any(), anyMap());
+        assertEquals(List.of("down.example.com"), circuitBreakers.getStats().get("openOrHalfOpen"));
+    }
+
+    @Test
+    void deliver_otherHosts_areNotAffectedByAnOpenBreaker() {
+        // Given
+        CircuitBreaker breaker = circuitBreakers.forDestination("down.example.com");
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(false, 0, System.nanoTime());
+        }
+        when(channel.send(anyString(), anyString(), any(), anyMap())).thenReturn(true);
+
+        // When
+        DeliveryDispatcher.DeliveryResult down = deliveryDispatcher.deliver(channel, recipients(3), "Hello", null,
+                Map.of("url", "https://down.example.com/hook"));
+        DeliveryDispatcher.DeliveryResult up = deliveryDispatcher.deliver(channel, recipients(3), "Hello", null,
+                Map.of("url", "https://up.example.com/hook"));
+
+        // Then
+        assertEquals(3, down.deferred());
+        assertEquals(3, up.delivered());
+    }
+
+    @Test
+    void deliver_moreRecipientsThanHostPermits_waitForThemAtTheDefaults() {
+        // Given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(channel.send(anyString(), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return true;
+        });
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(channel, recipients(200), "Hello", null,
+                Map.of("url", "https://slow.example.com/hook"));
+
+        // Then
+        // Thirteen rounds of the host's sixteen permits, all delivered rather than deferred
+        assertEquals(200, result.delivered());
+        assertEquals("DELIVERED", result.status());
+        assertTrue(maxInFlight.get() <= 16, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void registries_dropIdleHosts() throws Exception {
+        // Given
+        BulkheadRegistry idleBulkheads = TestBulkheads.registry();
+        ReflectionTestUtils.setField(idleBulkheads, "idleMillis", 20L);
+        idleBulkheads.init();
+        CircuitBreakerRegistry idleBreakers = TestCircuitBreakers.registry(4, 1);
+        ReflectionTestUtils.setField(idleBreakers, "idleMillis", 20L);
+        idleBreakers.init();
+        Semaphore bulkhead = idleBulkheads.forDestination("once.example.com");
+        CircuitBreaker breaker = idleBreakers.forDestination("once.example.com");
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertNotSame(bulkhead, idleBulkheads.forDestination("once.example.com"));
+        assertNotSame(breaker, idleBreakers.forDestination("once.example.com"));
+    }
+
+    @Test
+    void deliveryResult_status() {
+        assertEquals("DELIVERED", new DeliveryDispatcher.DeliveryResult(2, List.of(), List.of()).status());
+        assertEquals("PARTIALLY_DELIVERED", new DeliveryDispatcher.DeliveryResult(1, List.of("user2"), List.of()).status());
+        assertEquals("PARTIALLY_DELIVERED", new DeliveryDispatcher.DeliveryResult(1, List.of(), List.of("user2")).status());
+        assertEquals("FAILED", new DeliveryDispatcher.DeliveryResult(0, List.of("user1"), List.of("user2")).status());
+        assertEquals(List.of("user1", "user2"),
+                new DeliveryDispatcher.DeliveryResult(0, List.of("user1"), List.of("user2")).undelivered());
+    }
+
+    @Test
+    void destinationOf_usesUrlHostOrChannelType() {
+        // Then
+        assertEquals("example.com", DeliveryDispatcher.destinationOf(channel, Map.of("url", "https://EXAMPLE.com/a")));
+        assertEquals("webhook", DeliveryDispatcher.destinationOf(channel, Map.of("url", "not a url")));
+        assertEquals("webhook", DeliveryDispatcher.destinationOf(channel, null));
+    }
+}
@@ -0,0 +1,352 @@
+package com.beta.notifierservice.service;
+
+import com.beta.notifierservice.kafka.DeadLetterPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetrySchedulerTest {
+
+    private static final String RETRY_QUEUE_KEY = "delivery:retry";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private NotificationChannel webhookChannel;
+
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CircuitBreakerRegistry circuitBreakers = TestCircuitBreakers.registry(2, 60000);
+    private final BulkheadRegistry bulkheads = TestBulkheads.registry(2);
+    private RetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(webhookChannel.getChannelType()).thenReturn("webhook");
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel), new MockEnvironment());
+        retryScheduler = new RetryScheduler(redisTemplate, objectMapper, channelRegistry, deadLetterPublisher,
+                circuitBreakers, bulkheads);
+        ReflectionTestUtils.setField(retryScheduler, "enabled", true);
+        ReflectionTestUtils.setField(retryScheduler, "workerCount", 2);
+        ReflectionTestUtils.setField(retryScheduler, "maxAttempts", 5);
+        ReflectionTestUtils.setField(retryScheduler, "baseDelayMillis", 1000L);
+        ReflectionTestUtils.setField(retryScheduler, "maxDelayMillis", 60000L);
+        // Polling is driven by the tests
+        ReflectionTestUtils.setField(retryScheduler, "pollIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(retryScheduler, "leaseMillis", 60000L);
+        ReflectionTestUtils.setField(retryScheduler, "bulkheadWaitMillis", 50L);
+        retryScheduler.start();
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.shutdown();
+    }
+
+    private String retry(int attempt, int maxAttempts) throws Exception {
+        return objectMapper.writeValueAsString(new DeliveryRetry("retry-1", "n1", "project1", "webhook", "user1",
+                "Hello", null, Map.of("url", "https://example.com/hook"), attempt, maxAttempts, "Delivery failed"));
+    }
+
+    @Test
+    void scheduleRetries_queuesEachRecipientWithBackoff() throws Exception {
+        // When
+        long before = System.currentTimeMillis();
+        int queued = retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello", null,
+                Map.of("url", "https://example.com/hook"), List.of("user1", "user2"), List.of(), "1 of 2 deliveries failed");
+
+        // Then
+        assertEquals(2, queued);
+        ArgumentCaptor<String> member = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Double> dueAt = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations, times(2)).add(eq(RETRY_QUEUE_KEY), member.capture(), dueAt.capture());
+        DeliveryRetry retry = objectMapper.readValue(member.getAllValues().get(0), DeliveryRetry.class);
+        assertEquals(2, retry.attempt());
+        assertEquals(5, retry.maxAttempts());
+        for (double due : dueAt.getAllValues()) {
+            assertTrue(due >= before + 500 && due <= System.currentTimeMillis() + 1000, "due at " + due);
+        }
+    }
+
+    @Test
+    void scheduleRetries_configRetriesLowersTheCap() {
+        // Given
+        when(deadLetterPublisher.publish(anyString(), anyString(), anyString(), anyString(), anyInt(), any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int none = retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello", null,
+                Map.of("retries", 0), List.of("user1"), List.of(), "failed");
+
+        // Then
+        assertEquals(0, none);
+        assertEquals(4, retryScheduler.maxAttemptsFor(Map.of("retries", 3)));
+        assertEquals(5, retryScheduler.maxAttemptsFor(Map.of("retries", 100)));
+        assertEquals(5, retryScheduler.maxAttemptsFor(null));
+        verifyNoInteractions(zSetOperations);
+    }
+
+    @Test
+    void scheduleRetries_retryDisabled_deadLettersEachRecipientAtOnce() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(retryScheduler, "enabled", false);
+        when(deadLetterPublisher.publish(eq("project1"), anyString(), eq("project1"), eq("n1"), eq(1),
+                eq(DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED), eq("failed")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int queued = retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello", null,
+                Map.of("url", "https://example.com/hook"), List.of("user1", "user2"), List.of(), "failed");
+
+        // Then
+        assertEquals(0, queued);
+        ArgumentCaptor<String> notification = ArgumentCaptor.forClass(String.class);
+        verify(deadLetterPublisher, times(2)).publish(anyString(), notification.capture(), anyString(), anyString(),
+                anyInt(), any(), anyString());
+        List<String> recipients = new ArrayList<>();
+        for (String value : notification.getAllValues()) {
+            recipients.add(objectMapper.readTree(value).get("recipients").get(0).asText());
+        }
+        assertEquals(List.of("user1", "user2"), recipients);
+        assertEquals(2L, retryScheduler.getStats().get("exhausted"));
+        verifyNoInteractions(zSetOperations);
+    }
+
+    @Test
+    void scheduleRetries_deadLetterFails_throws() {
+        // Given
+        when(deadLetterPublisher.publish(anyString(), anyString(), anyString(), anyString(), anyInt(), any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When / Then
+        assertThrows(CompletionException.class, () -> retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello",
+                null, Map.of("retries", 0), List.of("user1"), List.of(), "failed"));
+    }
+
+    @Test
+    void scheduleRetries_deferredRecipients_queueAtTheirFirstAttempt() throws Exception {
+        // When
+        int queued = retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello", null,
+                Map.of("retries", 0), List.of(), List.of("user1"), "1 of 1 deliveries deferred");
+
+        // Then
+        // The config allows no retries, but a deferred recipient was never sent to
+        assertEquals(1, queued);
+        ArgumentCaptor<String> member = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations).add(eq(RETRY_QUEUE_KEY), member.capture(), anyDouble());
+        DeliveryRetry retry = objectMapper.readValue(member.getValue(), DeliveryRetry.class);
+        assertEquals(1, retry.attempt());
+        assertEquals(1, retry.maxAttempts());
+        verifyNoInteractions(deadLetterPublisher);
+        assertEquals(0L, retryScheduler.getStats().get("exhausted"));
+    }
+
+    @Test
+    void scheduleRetries_retryDisabled_deadLettersDeferredRecipientsAsDeferred() {
+        // Given
+        ReflectionTestUtils.setField(retryScheduler, "enabled", false);
+        when(deadLetterPublisher.publish(anyString(), anyString(), anyString(), anyString(), anyInt(), any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int queued = retryScheduler.scheduleRetries("n1", "project1", "webhook", "Hello", null,
+                Map.of("url", "https://example.com/hook"), List.of("user1"), List.of("user2"), "deferred");
+
+        // Then
+        assertEquals(0, queued);
+        verify(deadLetterPublisher).publish(eq("project1"), anyString(), eq("project1"), eq("n1"), eq(1),
+                eq(DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED), eq("deferred"));
+        verify(deadLetterPublisher).publish(eq("project1"), anyString(), eq("project1"), eq("n1"), eq(0),
+                eq(DeadLetterPublisher.ErrorType.DELIVERY_DEFERRED), eq("deferred"));
+        assertEquals(1L, retryScheduler.getStats().get("exhausted"));
+        verifyNoInteractions(zSetOperations);
+    }
+
+    @Test
+    void backoffMillis_growsExponentiallyWithJitterUpToTheCap() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long delay = Math.min(1000L << (attempt - 1), 60000L);
+            long backoff = retryScheduler.backoffMillis(attempt);
+            assertTrue(backoff >= delay / 2 && backoff <= delay, "attempt " + attempt + ": " + backoff);
+        }
+    }
+
+    @Test
+    void attempt_success_removesTheRetry() throws Exception {
+        // Given
+        String member = retry(2, 5);
+        when(webhookChannel.send(eq("user1"), eq("Hello"), any(), anyMap())).thenReturn(true);
+
+        // When
+        retryScheduler.attempt(member);
+
+        // Then
+        verify(zSetOperations).remove(RETRY_QUEUE_KEY, member);
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+        assertEquals(1L, retryScheduler.getStats().get("succeeded"));
+    }
+
+    @Test
+    void attempt_failure_requeuesTheNextAttempt() throws Exception {
+        // Given
+        String member = retry(2, 5);
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+
+        // When
+        retryScheduler.attempt(member);
+
+        // Then
+        ArgumentCaptor<String> next = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations).remove(RETRY_QUEUE_KEY, member);
+        verify(zSetOperations).add(eq(RETRY_QUEUE_KEY), next.capture(), anyDouble());
+        assertEquals(3, objectMapper.readValue(next.getValue(), DeliveryRetry.class).attempt());
+    }
+
+    @Test
+    void attempt_lastAttemptFails_deadLettersAndGivesUp() throws Exception {
+        // Given
+        String member = retry(5, 5);
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+        when(deadLetterPublisher.publish(eq("project1"), anyString(), eq("project1"), eq("n1"), eq(5),
+                eq(DeadLetterPublisher.ErrorType.DELIVERY_EXHAUSTED), eq("Delivery failed")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        retryScheduler.attempt(member);
+
+        // Then
+        ArgumentCaptor<String> notification = ArgumentCaptor.forClass(String.class);
+        verify(deadLetterPublisher).publish(anyString(), notification.capture(), anyString(), anyString(), anyInt(), any(), anyString());
+        JsonNode deadLetter = objectMapper.readTree(notification.getValue());
+        assertEquals("n1", deadLetter.get("id").asText());
+        assertEquals("user1", deadLetter.get("recipients").get(0).asText());
+        verify(zSetOperations).remove(RETRY_QUEUE_KEY, member);
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+        assertEquals(1L, retryScheduler.getStats().get("exhausted"));
+    }
+
+    @Test
+    void attempt_deadLetterFails_keepsTheRetry() throws Exception {
+        // Given
+        String member = retry(5, 5);
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(false);
+        when(deadLetterPublisher.publish(anyString(), anyString(), anyString(), anyString(), anyInt(), any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When
+        retryScheduler.attempt(member);
+
+        // Then
+        verifyNoInteractions(zSetOperations);
+        assertEquals(0L, retryScheduler.getStats().get("exhausted"));
+    }
+
+    @Test
+    void attempt_circuitOpen_parksWithoutUsingAnAttempt() throws Exception {
+        // Given
+        CircuitBreaker breaker = circuitBreakers.forDestination("example.com");
+        long now = System.nanoTime();
+        breaker.onResult(false, 0, now);
+        breaker.onResult(false, 0, now);
+        String member = retry(2, 5);
+
+        // When
+        long before = System.currentTimeMillis();
+        retryScheduler.attempt(member);
+
+        // Then
+        verify(webhookChannel, never()).send(anyString(), anyString(), any(), anyMap());
+        ArgumentCaptor<Double> dueAt = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations).add(eq(RETRY_QUEUE_KEY), eq(member), dueAt.capture());
+        assertTrue(dueAt.getValue() >= before + 59_000, "due at " + dueAt.getValue());
+        assertEquals(1L, retryScheduler.getStats().get("parked"));
+    }
+
+    @Test
+    void attempt_bulkheadFull_parksWithoutUsingAnAttempt() throws Exception {
+        // Given
+        // First attempts to the same host hold both of its permits
+        Semaphore hostLimit = bulkheads.forDestination("example.com");
+        hostLimit.acquire(2);
+        String member = retry(2, 5);
+
+        // When
+        long before = System.currentTimeMillis();
+        retryScheduler.attempt(member);
+
+        // Then
+        verify(webhookChannel, never()).send(anyString(), anyString(), any(), anyMap());
+        ArgumentCaptor<Double> dueAt = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations).add(eq(RETRY_QUEUE_KEY), eq(member), dueAt.capture());
+        verify(zSetOperations, never()).remove(anyString(), any());
+        assertTrue(dueAt.getValue() >= before + 500, "due at " + dueAt.getValue());
+        assertEquals(1L, retryScheduler.getStats().get("parked"));
+        assertEquals(0L, retryScheduler.getStats().get("attempted"));
+    }
+
+    @Test
+    void attempt_batchNotSent_parksWithoutUsingAnAttempt() throws Exception {
+        // Given
+        when(webhookChannel.batches(anyMap())).thenReturn(true);
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap()))
+                .thenThrow(new DeliveryDeferredException("Bulkhead full for example.com"));
+        String member = retry(2, 5);
+
+        // When
+        retryScheduler.attempt(member);
+
+        // Then
+        verify(zSetOperations).add(eq(RETRY_QUEUE_KEY), eq(member), anyDouble());
+        verify(zSetOperations, never()).remove(anyString(), any());
+        assertEquals(1L, retryScheduler.getStats().get("parked"));
+        assertEquals(0L, retryScheduler.getStats().get("attempted"));
+        // The batch takes the host permit, not the retry
+        assertEquals(2, bulkheads.forDestination("example.com").availablePermits());
+    }
+
+    @Test
+    void attempt_releasesTheHostPermit() throws Exception {
+        // Given
+        when(webhookChannel.send(anyString(), anyString(), any(), anyMap())).thenReturn(true);
+
+        // When
+        retryScheduler.attempt(retry(2, 5));
+
+        // Then
+        assertEquals(2, bulkheads.forDestination("example.com").availablePermits());
+    }
+}
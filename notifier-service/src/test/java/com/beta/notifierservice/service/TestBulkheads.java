@@ -0,0 +1,27 @@
+package com.beta.notifierservice.service;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Bulkhead registries for tests that build components by hand.
+ */
+public final class TestBulkheads {
+
+    private TestBulkheads() {
+    }
+
+    /**
+     * A registry with the service defaults.
+     */
+    public static BulkheadRegistry registry() {
+        return registry(16);
+    }
+
+    public static BulkheadRegistry registry(int maxPerHost) {
+        BulkheadRegistry registry = new BulkheadRegistry();
+        ReflectionTestUtils.setField(registry, "maxPerHost", maxPerHost);
+        ReflectionTestUtils.setField(registry, "idleMillis", 600000L);
+        registry.init();
+        return registry;
+    }
+}
@@ -0,0 +1,30 @@
+package com.beta.notifierservice.service;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Circuit breaker registries with the service defaults, for tests that build components by hand.
+ */
+public final class TestCircuitBreakers {
+
+    private TestCircuitBreakers() {
+    }
+
+    public static CircuitBreakerRegistry registry() {
+        return registry(20, 30000);
+    }
+
+    public static CircuitBreakerRegistry registry(int minimumCalls, long openMillis) {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(registry, "windowSize", 50);
+        ReflectionTestUtils.setField(registry, "minimumCalls", minimumCalls);
+        ReflectionTestUtils.setField(registry, "failureRatePercent", 50);
+        ReflectionTestUtils.setField(registry, "slowCallMillis", 3000L);
+        ReflectionTestUtils.setField(registry, "slowCallRatePercent", 80);
+        ReflectionTestUtils.setField(registry, "openMillis", openMillis);
+        ReflectionTestUtils.setField(registry, "halfOpenCalls", 3);
+        ReflectionTestUtils.setField(registry, "idleMillis", 600000L);
+        registry.init();
+        return registry;
+    }
+}
@@ -0,0 +1,99 @@
+package com.beta.notifierservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookBatcherTest {
+
+    private final List<List<Map<String, Object>>> sent = Collections.synchronizedList(new ArrayList<>());
+    private boolean succeed = true;
+    private final WebhookBatcher batcher = new WebhookBatcher((endpoint, payloads) -> {
+        sent.add(List.copyOf(payloads));
+        return succeed;
+    });
+
+    private static final WebhookBatcher.Endpoint ENDPOINT = new WebhookBatcher.Endpoint("https://example.com/hook", "secret", null);
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void submit_fullBatch_isSentAtOnce() {
+        // When
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(batcher.submit(ENDPOINT, Map.of("recipient", "user" + i), 3, 60_000));
+        }
+
+        // Then
+        results.forEach(result -> assertTrue(result.join()));
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).size());
+        assertEquals(0, batcher.openBatchCount());
+    }
+
+    @Test
+    void submit_partialBatch_isSentWhenTheWindowCloses() {
+        // When
+        CompletableFuture<Boolean> first = batcher.submit(ENDPOINT, Map.of("recipient", "user1"), 100, 50);
+        CompletableFuture<Boolean> second = batcher.submit(ENDPOINT, Map.of("recipient", "user2"), 100, 50);
+
+        // Then
+        assertTrue(first.join());
+        assertTrue(second.join());
+        assertEquals(1, sent.size());
+        assertEquals(List.of(Map.of("recipient", "user1"), Map.of("recipient", "user2")), sent.get(0));
+    }
+
+    @Test
+    void submit_differentEndpoints_areBatchedSeparately() {
+        // Given
+        WebhookBatcher.Endpoint otherSecret = new WebhookBatcher.Endpoint("https://example.com/hook", "other", null);
+
+        // When
+        CompletableFuture<Boolean> first = batcher.submit(ENDPOINT, Map.of("recipient", "user1"), 100, 20);
+        CompletableFuture<Boolean> second = batcher.submit(otherSecret, Map.of("recipient", "user2"), 100, 20);
+
+        // Then
+        first.join();
+        second.join();
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void submit_failedBatch_failsEveryPayload() {
+        // Given
+        succeed = false;
+
+        // When
+        CompletableFuture<Boolean> first = batcher.submit(ENDPOINT, Map.of("recipient", "user1"), 2, 60_000);
+        CompletableFuture<Boolean> second = batcher.submit(ENDPOINT, Map.of("recipient", "user2"), 2, 60_000);
+
+        // Then
+        assertFalse(first.join());
+        assertFalse(second.join());
+    }
+
+    @Test
+    void close_sendsOpenBatches() {
+        // Given
+        CompletableFuture<Boolean> result = batcher.submit(ENDPOINT, Map.of("recipient", "user1"), 100, 60_000);
+
+        // When
+        batcher.close();
+
+        // Then
+        assertTrue(result.isDone());
+        assertEquals(1, sent.size());
+    }
+}
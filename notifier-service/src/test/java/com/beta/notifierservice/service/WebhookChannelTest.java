@@ -0,0 +1,183 @@
+package com.beta.notifierservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookChannelTest {
+
+    @Mock
+    private WebhookHttpClient webhookHttpClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebhookSigner webhookSigner = new WebhookSigner();
+    private final CircuitBreakerRegistry circuitBreakers = TestCircuitBreakers.registry(2, 60000);
+    private final BulkheadRegistry bulkheads = TestBulkheads.registry(2);
+    private WebhookChannel webhookChannel;
+    private DeliveryDispatcher deliveryDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        webhookChannel = new WebhookChannel(webhookHttpClient, objectMapper, webhookSigner, circuitBreakers, bulkheads);
+        ReflectionTestUtils.setField(webhookSigner, "maxSecrets", 100);
+        ReflectionTestUtils.setField(webhookChannel, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(webhookChannel, "maxBatchWindowMillis", 1000L);
+        ChannelRegistry channelRegistry = new ChannelRegistry(List.of(webhookChannel),
+                new MockEnvironment().withProperty("app.delivery.max-concurrency", "4"));
+        deliveryDispatcher = new DeliveryDispatcher(circuitBreakers, bulkheads, channelRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookChannel.flushBatches();
+    }
+
+    @Test
+    void send_withoutBatching_postsOnePayloadPerRecipient() throws Exception {
+        // Given
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(200);
+
+        // When
+        boolean success = webhookChannel.send("user1", "Hello", null, Map.of("url", "https://example.com/hook", "timeout", 1000));
+
+        // Then
+        assertTrue(success);
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        verify(webhookHttpClient).post(eq("https://example.com/hook"), body.capture(), anyMap(), eq(1000L));
+        JsonNode payload = objectMapper.readTree(body.getValue());
+        assertEquals("user1", payload.get("recipient").asText());
+        assertTrue(payload.get("title").isNull());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void send_withBatching_coalescesRecipientsIntoOnePost() throws Exception {
+        // Given
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(200);
+        Map<String, Object> config = Map.of("url", "https://example.com/hook", "secret", "s3cret",
+                "batch", true, "batchSize", 50, "batchWindowMs", 100);
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(webhookChannel,
+                List.of("user1", "user2", "user3", "user4", "user5"), "Hello", "Title", config);
+
+        // Then
+        assertEquals(5, result.delivered());
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(webhookHttpClient, times(1)).post(anyString(), body.capture(), headers.capture(), isNull());
+        JsonNode payloads = objectMapper.readTree(body.getValue());
+        assertTrue(payloads.isArray());
+        assertEquals(5, payloads.size());
+        assertEquals(webhookSigner.sign("s3cret", body.getValue()), headers.getValue().get("X-Webhook-Signature"));
+    }
+
+    @Test
+    void send_withBatching_failedBatchesOpenTheBreaker() {
+        // Given
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(500);
+        Map<String, Object> config = Map.of("url", "https://example.com/hook", "batch", true, "batchWindowMs", 20);
+        List<String> recipients = List.of("user1", "user2", "user3");
+
+        // When
+        DeliveryDispatcher.DeliveryResult first = deliveryDispatcher.deliver(webhookChannel, recipients, "Hello", null, config);
+        DeliveryDispatcher.DeliveryResult second = deliveryDispatcher.deliver(webhookChannel, recipients, "Hello", null, config);
+        DeliveryDispatcher.DeliveryResult third = deliveryDispatcher.deliver(webhookChannel, recipients, "Hello", null, config);
+
+        // Then
+        // Each batch is one call of the breaker, which opens after its two minimum calls
+        assertEquals(3, first.failed());
+        assertEquals(3, second.failed());
+        assertEquals(3, third.deferred());
+        verify(webhookHttpClient, times(2)).post(anyString(), any(), anyMap(), any());
+    }
+
+    @Test
+    void send_withBatching_bulkheadFull_waitsForAPermit() throws Exception {
+        // Given
+        // Other deliveries to the same host hold both of its permits
+        Semaphore hostLimit = bulkheads.forDestination("example.com");
+        hostLimit.acquireUninterruptibly(2);
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(200);
+        Map<String, Object> config = Map.of("url", "https://example.com/hook", "batch", true, "batchWindowMs", 20);
+
+        // When
+        CompletableFuture<DeliveryDispatcher.DeliveryResult> result = CompletableFuture.supplyAsync(() ->
+                deliveryDispatcher.deliver(webhookChannel, List.of("user1", "user2", "user3"), "Hello", null, config));
+        Thread.sleep(200);
+        verifyNoInteractions(webhookHttpClient);
+        hostLimit.release(2);
+
+        // Then
+        assertEquals(3, result.get(5, TimeUnit.SECONDS).delivered());
+        verify(webhookHttpClient, times(1)).post(anyString(), any(), anyMap(), any());
+    }
+
+    @Test
+    void send_withBatching_holdsOneHostPermitPerBatch() {
+        // Given
+        ReflectionTestUtils.setField(bulkheads, "maxPerHost", 1);
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(200);
+        Map<String, Object> config = Map.of("url", "https://example.com/hook", "batch", true, "batchWindowMs", 20);
+
+        // When
+        DeliveryDispatcher.DeliveryResult result = deliveryDispatcher.deliver(webhookChannel,
+                List.of("user1", "user2", "user3", "user4"), "Hello", null, config);
+
+        // Then
+        assertEquals(4, result.delivered());
+        verify(webhookHttpClient, times(1)).post(anyString(), any(), anyMap(), any());
+        assertEquals(1, bulkheads.forDestination("example.com").availablePermits());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void send_withSecret_signsTheExactBodySent() throws Exception {
+        // Given
+        when(webhookHttpClient.post(anyString(), any(), anyMap(), any())).thenReturn(200);
+
+        // When
+        webhookChannel.send("user1", "Hello", "Title", Map.of("url", "https://example.com/hook", "secret", "s3cret"));
+
+        // Then
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(webhookHttpClient).post(anyString(), body.capture(), headers.capture(), any());
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("s3cret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = "sha256=" + HexFormat.of().formatHex(mac.doFinal(body.getValue()));
+        assertEquals(expected, headers.getValue().get("X-Webhook-Signature"));
+    }
+
+    @Test
+    void batchSettings_areCappedByServiceLimits() {
+        assertEquals(100, webhookChannel.batchSize(Map.of("batchSize", 10_000)));
+        assertEquals(1, webhookChannel.batchSize(Map.of("batchSize", 0)));
+        assertEquals(50L, webhookChannel.batchWindowMillis(Map.of()));
+        assertEquals(1000L, webhookChannel.batchWindowMillis(Map.of("batchWindowMs", 60_000)));
+        assertFalse(webhookChannel.batches(Map.of("url", "https://example.com/hook")));
+    }
+}
@@ -0,0 +1,133 @@
+package com.beta.notifierservice.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookHttpClientTest {
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private WebhookHttpClient webhookHttpClient;
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private final AtomicReference<String> receivedSignature = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            receivedSignature.set(exchange.getRequestHeaders().getFirst("X-Webhook-Signature"));
+            byte[] response = "x".repeat(1_000_000).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        webhookHttpClient = new WebhookHttpClient(httpClient);
+        ReflectionTestUtils.setField(webhookHttpClient, "requestTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(webhookHttpClient, "maxRequestTimeoutMillis", 30000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        httpClient.close();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    void post_sendsBodyAndHeadersAndDiscardsResponse() {
+        // When
+        int status = webhookHttpClient.post(url("/ok"), "{\"a\":1}".getBytes(StandardCharsets.UTF_8),
+                Map.of("X-Webhook-Signature", "sha256=abc"), null);
+
+        // Then
+        assertEquals(200, status);
+        assertEquals("{\"a\":1}", receivedBody.get());
+        assertEquals("sha256=abc", receivedSignature.get());
+        Map<String, Object> stats = webhookHttpClient.getStats();
+        assertEquals(1L, stats.get("requests"));
+        assertEquals(0L, stats.get("failedResponses"));
+        assertEquals(0, stats.get("inFlightRequests"));
+    }
+
+    @Test
+    void post_countsNon2xxAsFailedResponse() {
+        // When
+        int status = webhookHttpClient.post(url("/error"), new byte[0], Map.of(), null);
+
+        // Then
+        assertEquals(500, status);
+        assertEquals(1L, webhookHttpClient.getStats().get("failedResponses"));
+    }
+
+    @Test
+    void post_endpointThatHangs_timesOut() {
+        // When
+        long start = System.nanoTime();
+        int status = webhookHttpClient.post(url("/slow"), new byte[0], Map.of(), 200L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(-1, status);
+        assertTrue(elapsedMillis < 1500, "took " + elapsedMillis + "ms");
+        assertEquals(1L, webhookHttpClient.getStats().get("timeouts"));
+    }
+
+    @Test
+    void post_unreachableEndpoint_countsError() {
+        // Given
+        int port = server.getAddress().getPort();
+        server.stop(0);
+
+        // When
+        int status = webhookHttpClient.post("http://127.0.0.1:" + port + "/ok", new byte[0], Map.of(), null);
+
+        // Then
+        assertEquals(-1, status);
+        assertEquals(1L, webhookHttpClient.getStats().get("errors"));
+    }
+
+    @Test
+    void timeoutFor_usesDefaultAndCapsEndpointTimeouts() {
+        assertEquals(5000L, webhookHttpClient.timeoutFor(null));
+        assertEquals(5000L, webhookHttpClient.timeoutFor(0L));
+        assertEquals(1000L, webhookHttpClient.timeoutFor(1000L));
+        assertEquals(30000L, webhookHttpClient.timeoutFor(120000L));
+    }
+}
@@ -0,0 +1,72 @@
+package com.beta.notifierservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookSignerTest {
+
+    private WebhookSigner webhookSigner;
+
+    @BeforeEach
+    void setUp() {
+        webhookSigner = new WebhookSigner();
+        ReflectionTestUtils.setField(webhookSigner, "maxSecrets", 2);
+    }
+
+    @Test
+    void sign_matchesTheRfc4231TestVector() {
+        // RFC 4231 test case 2
+        String signature = webhookSigner.sign("Jefe", "what do ya want for nothing?".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("sha256=5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843", signature);
+    }
+
+    @Test
+    void sign_reusedMacGivesTheSameSignature() {
+        byte[] body = "{\"recipient\":\"user1\"}".getBytes(StandardCharsets.UTF_8);
+
+        String first = webhookSigner.sign("secret", body);
+        webhookSigner.sign("secret", "something else".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(first, webhookSigner.sign("secret", body));
+        assertNotEquals(first, webhookSigner.sign("other", body));
+    }
+
+    @Test
+    void sign_manySecrets_staysCorrectPastTheCacheLimit() {
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        String expected = webhookSigner.sign("a", body);
+
+        webhookSigner.sign("b", body);
+        webhookSigner.sign("c", body);
+
+        assertEquals(expected, webhookSigner.sign("a", body));
+    }
+
+    @Test
+    void sign_concurrentCallers_getConsistentSignatures() throws Exception {
+        byte[] body = "{\"recipient\":\"user1\"}".getBytes(StandardCharsets.UTF_8);
+        String expected = webhookSigner.sign("secret", body);
+
+        List<Future<String>> signatures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                signatures.add(executor.submit(() -> webhookSigner.sign("secret", body)));
+            }
+        }
+
+        for (Future<String> signature : signatures) {
+            assertEquals(expected, signature.get());
+        }
+    }
+}